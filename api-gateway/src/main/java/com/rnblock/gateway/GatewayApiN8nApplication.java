@@ -1,8 +1,9 @@
 package com.rnblock.gateway;
 
+import com.rnblock.gateway.config.GatewayRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
@@ -10,16 +11,17 @@ import org.springframework.scheduling.annotation.EnableScheduling;
  * Main application class for the API Gateway
  * 
  * This class serves as the entry point for the Spring Boot application.
- * It enables caching, async processing, and scheduling capabilities.
+ * It enables async processing and scheduling capabilities, and registers the
+ * native-image metadata of the gateway ({@link GatewayRuntimeHints}).
  * 
  * @author RNBlock
  * @version 0.0.1
  * @since 2025-11-13
  */
 @SpringBootApplication
-@EnableCaching
 @EnableAsync
 @EnableScheduling
+@ImportRuntimeHints(GatewayRuntimeHints.class)
 public class GatewayApiN8nApplication {
 
     /**
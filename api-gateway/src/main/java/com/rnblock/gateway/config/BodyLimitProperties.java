@@ -0,0 +1,27 @@
+package com.rnblock.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Request body size limits of the proxied routes (api.body-limits).
+ * The first limit whose path prefix matches the request applies.
+ */
+@Component
+@ConfigurationProperties(prefix = "api.body-limits")
+@Data
+public class BodyLimitProperties {
+
+    private List<Limit> limits = new ArrayList<>();
+
+    @Data
+    public static class Limit {
+        private String pathPrefix;
+        private DataSize maxSize;
+    }
+}
@@ -0,0 +1,121 @@
+package com.rnblock.gateway.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.server.mvc.config.GatewayMvcProperties;
+import org.springframework.cloud.gateway.server.mvc.config.RouteProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import java.io.Closeable;
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP clients used by Spring Cloud Gateway MVC to call the backend services.
+ *
+ * Each route gets its own client, tuned under api.http-client.routes.&lt;route id&gt;:
+ * a pooled HTTP/1.1 client (keep-alive, idle eviction, pool metrics
+ * {@code httpcomponents.httpclient.pool.*} tagged with the route id) or an HTTP/2
+ * client multiplexing requests over one connection. With virtual threads enabled,
+ * HTTP/2 clients run on a virtual-thread executor. Replaces the gateway's default
+ * {@code gatewayClientHttpRequestFactory}.
+ */
+@Configuration
+@Slf4j
+public class GatewayHttpClientConfig {
+
+    private static final String DEFAULT_CLIENT = "default";
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Bean
+    public ClientHttpRequestFactory gatewayClientHttpRequestFactory(HttpClientProperties properties,
+                                                                    GatewayMvcProperties gatewayProperties,
+                                                                    MeterRegistry meterRegistry) {
+        List<Closeable> resources = new ArrayList<>();
+        Map<String, ClientHttpRequestFactory> factories = new HashMap<>();
+
+        for (RouteProperties route : gatewayProperties.getRoutes()) {
+            if (route.getUri() == null || route.getUri().getHost() == null) {
+                continue;
+            }
+            HttpClientProperties.Route config = properties.route(route.getId());
+            factories.put(route.getId(), create(route.getId(), config, meterRegistry, resources));
+            log.info("Route {} -> {} uses {} client (max connections {})",
+                    route.getId(), route.getUri(), config.getVersion(), config.getMaxConnections());
+        }
+
+        ClientHttpRequestFactory defaultFactory = create(DEFAULT_CLIENT, properties.getDefaults(), meterRegistry, resources);
+        return new RoutingClientHttpRequestFactory(factories, defaultFactory, resources);
+    }
+
+    private ClientHttpRequestFactory create(String name, HttpClientProperties.Route config,
+                                            MeterRegistry meterRegistry, List<Closeable> resources) {
+        return switch (config.getVersion()) {
+            case HTTP_1_1 -> pooled(name, config, meterRegistry, resources);
+            case HTTP_2 -> http2(config);
+        };
+    }
+
+    private ClientHttpRequestFactory pooled(String name, HttpClientProperties.Route config,
+                                            MeterRegistry meterRegistry, List<Closeable> resources) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(config.getMaxConnections())
+                .setMaxConnPerRoute(config.getMaxConnections())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(config.getConnectTimeout().toMillis()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(config.getReadTimeout().toMillis()))
+                        .setTimeToLive(TimeValue.ofMilliseconds(config.getTimeToLive().toMillis()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .evictIdleConnections(TimeValue.ofMilliseconds(config.getIdleTimeout().toMillis()))
+                .evictExpiredConnections()
+                // The proxy forwards redirects and cookies to the caller as they are
+                .disableRedirectHandling()
+                .disableCookieManagement()
+                .disableAutomaticRetries()
+                .build();
+        resources.add(httpClient);
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, name).bindTo(meterRegistry);
+
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setConnectionRequestTimeout(config.getConnectionRequestTimeout());
+        return requestFactory;
+    }
+
+    private ClientHttpRequestFactory http2(HttpClientProperties.Route config) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(config.getConnectTimeout());
+        if (virtualThreads) {
+            builder.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(builder.build());
+        requestFactory.setReadTimeout(config.getReadTimeout());
+        return requestFactory;
+    }
+}
@@ -0,0 +1,49 @@
+package com.rnblock.gateway.config;
+
+import com.rnblock.gateway.model.ApiKey;
+import com.rnblock.gateway.model.TestWallet;
+import com.rnblock.gateway.model.Wallet;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.util.List;
+
+/**
+ * Reachability metadata of the gateway for the native image (mvn -Pnative native:compile).
+ *
+ * Spring AOT covers the beans, configuration properties and Spring Data repositories, and the
+ * GraalVM metadata repository covers the libraries (Caffeine, Netty, Lettuce, HttpClient 5).
+ * What is left is what the gateway itself loads by name or reflectively:
+ * <ul>
+ *   <li>the Lua scripts of the Redis admission and quota paths, read from the classpath;</li>
+ *   <li>the JPA entities, whose fields Hibernate sets and reads without bytecode enhancement in a
+ *       native image (Lombok generates plain constructors and accessors at compile time);</li>
+ *   <li>the JDK proxy behind {@code StatefulRedisConnection.sync()}, used by the script loading
+ *       and the credit reconciliation. The admission hot path and the Bucket4j proxy manager use
+ *       the asynchronous API and the Bucket4j serialization handles, without reflection.</li>
+ * </ul>
+ * Spring Boot also registers the managed entity types; they are listed here as well so that all
+ * the native metadata of the gateway is in one place.
+ */
+public class GatewayRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final List<Class<?>> ENTITIES = List.of(ApiKey.class, Wallet.class, TestWallet.class);
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.resources().registerPattern("scripts/*.lua");
+
+        for (Class<?> entity : ENTITIES) {
+            hints.reflection().registerType(entity,
+                    MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+
+        // Same interfaces, same order as StatefulRedisConnectionImpl#newRedisSyncCommandsImpl
+        hints.proxies().registerJdkProxy(RedisCommands.class, RedisClusterCommands.class);
+    }
+}
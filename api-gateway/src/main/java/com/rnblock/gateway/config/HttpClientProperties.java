@@ -0,0 +1,106 @@
+package com.rnblock.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Downstream HTTP clients of the gateway proxy (api.http-client).
+ *
+ * Routes are matched by id with spring.cloud.gateway.mvc.routes; a route entry only
+ * overrides the fields it sets, the others come from {@code defaults}. A route without
+ * an entry, or a URI matching no route, uses {@code defaults}.
+ */
+@Component
+@ConfigurationProperties(prefix = "api.http-client")
+@Data
+public class HttpClientProperties {
+
+    /**
+     * Settings of every client; each field can be overridden per route
+     */
+    private Route defaults = Route.builtIn();
+
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    /**
+     * Settings of a route: its entry merged over {@code defaults}, field by field.
+     */
+    public Route route(String routeId) {
+        Route route = routes.get(routeId);
+        return route != null ? route.over(defaults) : defaults;
+    }
+
+    public enum Version {
+        /**
+         * Pooled HTTP/1.1 connections (Apache HttpClient)
+         */
+        HTTP_1_1,
+        /**
+         * HTTP/2 multiplexed over a single connection (JDK HttpClient, h2c upgrade for http://)
+         */
+        HTTP_2
+    }
+
+    /**
+     * Client settings. In {@code defaults} every field has a value; in a route entry a field
+     * left out is null and taken from {@code defaults} (see {@link #route(String)}).
+     */
+    @Data
+    public static class Route {
+        private Version version;
+
+        /**
+         * Pool size (HTTP/1.1 only)
+         */
+        private Integer maxConnections;
+
+        /**
+         * Max wait for a pooled connection when the pool is saturated (HTTP/1.1 only)
+         */
+        private Duration connectionRequestTimeout;
+
+        private Duration connectTimeout;
+
+        private Duration readTimeout;
+
+        /**
+         * Idle pooled connections are closed after this delay (HTTP/1.1 only)
+         */
+        private Duration idleTimeout;
+
+        /**
+         * Pooled connections are not reused after this age (HTTP/1.1 only)
+         */
+        private Duration timeToLive;
+
+        static Route builtIn() {
+            Route route = new Route();
+            route.version = Version.HTTP_1_1;
+            route.maxConnections = 50;
+            route.connectionRequestTimeout = Duration.ofSeconds(2);
+            route.connectTimeout = Duration.ofSeconds(5);
+            route.readTimeout = Duration.ofSeconds(60);
+            route.idleTimeout = Duration.ofSeconds(30);
+            route.timeToLive = Duration.ofMinutes(5);
+            return route;
+        }
+
+        private Route over(Route defaults) {
+            Route merged = new Route();
+            merged.version = version != null ? version : defaults.version;
+            merged.maxConnections = maxConnections != null ? maxConnections : defaults.maxConnections;
+            merged.connectionRequestTimeout = connectionRequestTimeout != null
+                    ? connectionRequestTimeout : defaults.connectionRequestTimeout;
+            merged.connectTimeout = connectTimeout != null ? connectTimeout : defaults.connectTimeout;
+            merged.readTimeout = readTimeout != null ? readTimeout : defaults.readTimeout;
+            merged.idleTimeout = idleTimeout != null ? idleTimeout : defaults.idleTimeout;
+            merged.timeToLive = timeToLive != null ? timeToLive : defaults.timeToLive;
+            return merged;
+        }
+    }
+}
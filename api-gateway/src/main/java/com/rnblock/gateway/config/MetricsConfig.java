@@ -0,0 +1,24 @@
+package com.rnblock.gateway.config;
+
+import com.rnblock.gateway.service.ApiKeyResolver;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics of the gateway components that Spring Boot does not bind by itself.
+ *
+ * The API key cache is a plain Caffeine cache (the gateway has no CacheManager): its
+ * statistics are exported as {@code cache.*} with {@code cache=api-keys}. Hikari pool
+ * ({@code hikaricp.connections.*}) and Lettuce ({@code lettuce.command.*}) metrics are
+ * bound by Spring Boot.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder apiKeysCacheMetrics(ApiKeyResolver apiKeyResolver) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, apiKeyResolver.getCache(), ApiKeyResolver.CACHE_NAME);
+    }
+}
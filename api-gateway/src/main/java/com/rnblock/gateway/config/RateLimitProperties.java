@@ -0,0 +1,43 @@
+package com.rnblock.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Rate limit plans (api.rate-limit.plans).
+ *
+ * A key uses the plan named by a {@code plan:<name>} scope, otherwise the plan
+ * matching its environment (production or test), otherwise the default plan.
+ * A limit of 0 disables the corresponding bandwidth.
+ */
+@Component
+@ConfigurationProperties(prefix = "api.rate-limit")
+@Data
+public class RateLimitProperties {
+
+    private String defaultPlan = "production";
+
+    private Map<String, Plan> plans = new LinkedHashMap<>();
+
+    @Data
+    public static class Plan {
+        /**
+         * Requests per second, refilled every second
+         */
+        private long burst = 10;
+
+        /**
+         * Requests per minute, refilled gradually
+         */
+        private long perMinute;
+
+        /**
+         * Requests per day, refilled gradually (rolling window, not a calendar quota)
+         */
+        private long perDay;
+    }
+}
@@ -8,6 +8,8 @@ import io.lettuce.core.api.StatefulRedisConnection;
 import io.lettuce.core.codec.ByteArrayCodec;
 import io.lettuce.core.codec.RedisCodec;
 import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import io.lettuce.core.resource.ClientResources;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -20,6 +22,8 @@ import java.time.Duration;
  *
  * This enables rate limits to be shared across multiple Gateway instances,
  * ensuring consistent rate limiting in a distributed deployment.
+ * The client uses the Lettuce resources of Spring Boot, which record command latencies
+ * in Micrometer ({@code lettuce.command.completion}, {@code lettuce.command.firstresponse}).
  */
 @Configuration
 @Slf4j
@@ -32,14 +36,15 @@ public class RedisConfig {
     private int redisPort;
 
     @Bean(destroyMethod = "shutdown")
-    public RedisClient redisClient() {
+    public RedisClient redisClient(ClientResources clientResources) {
         RedisURI redisUri = RedisURI.builder()
                 .withHost(redisHost)
                 .withPort(redisPort)
                 .build();
 
         log.info("Connecting to Redis at {}:{}", redisHost, redisPort);
-        return RedisClient.create(redisUri);
+        // Shared resources are shut down by Spring Boot, not by the client
+        return RedisClient.create(clientResources, redisUri);
     }
 
     @Bean(destroyMethod = "close")
@@ -48,6 +53,14 @@ public class RedisConfig {
         return redisClient.connect(codec);
     }
 
+    /**
+     * Dedicated connection for API key events (pub/sub connections cannot run regular commands).
+     */
+    @Bean(destroyMethod = "close")
+    public StatefulRedisPubSubConnection<String, String> apiKeyEventsConnection(RedisClient redisClient) {
+        return redisClient.connectPubSub();
+    }
+
     /**
      * Bucket4j ProxyManager backed by Redis.
      *
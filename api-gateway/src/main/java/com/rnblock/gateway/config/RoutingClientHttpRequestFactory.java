@@ -0,0 +1,59 @@
+package com.rnblock.gateway.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.gateway.server.mvc.common.MvcUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dispatches proxied requests to the HTTP client of their route, by route id.
+ *
+ * The gateway sets the id of the matched route on the servlet request before proxying it, and the
+ * proxy call runs on the request thread: the id is read from {@link RequestContextHolder}. Two
+ * routes to the same backend thus keep their own client and settings.
+ */
+class RoutingClientHttpRequestFactory implements ClientHttpRequestFactory, DisposableBean {
+
+    private final Map<String, ClientHttpRequestFactory> factories;
+    private final ClientHttpRequestFactory defaultFactory;
+    private final List<Closeable> resources;
+
+    RoutingClientHttpRequestFactory(Map<String, ClientHttpRequestFactory> factories,
+                                    ClientHttpRequestFactory defaultFactory,
+                                    List<Closeable> resources) {
+        this.factories = Map.copyOf(factories);
+        this.defaultFactory = defaultFactory;
+        this.resources = List.copyOf(resources);
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        String routeId = routeId();
+        ClientHttpRequestFactory factory = routeId != null ? factories.get(routeId) : null;
+        return (factory != null ? factory : defaultFactory).createRequest(uri, httpMethod);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        for (Closeable resource : resources) {
+            resource.close();
+        }
+    }
+
+    private static String routeId() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        return (String) attributes.getAttribute(MvcUtils.GATEWAY_ROUTE_ID_ATTR, RequestAttributes.SCOPE_REQUEST);
+    }
+}
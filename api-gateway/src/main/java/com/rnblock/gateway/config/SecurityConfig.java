@@ -1,6 +1,7 @@
 package com.rnblock.gateway.config;
 
 import com.rnblock.gateway.security.ApiKeyAuthFilter;
+import com.rnblock.gateway.security.BodySizeLimitFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -18,9 +19,11 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final ApiKeyAuthFilter apiKeyAuthFilter;
+    private final BodySizeLimitFilter bodySizeLimitFilter;
 
-    public SecurityConfig(ApiKeyAuthFilter apiKeyAuthFilter) {
+    public SecurityConfig(ApiKeyAuthFilter apiKeyAuthFilter, BodySizeLimitFilter bodySizeLimitFilter) {
         this.apiKeyAuthFilter = apiKeyAuthFilter;
+        this.bodySizeLimitFilter = bodySizeLimitFilter;
     }
 
     @Bean
@@ -35,6 +38,8 @@ public class SecurityConfig {
                     .denyAll()
             )
             .addFilterBefore(apiKeyAuthFilter, UsernamePasswordAuthenticationFilter.class)
+            // Oversized uploads are rejected before any credit is spent
+            .addFilterBefore(bodySizeLimitFilter, ApiKeyAuthFilter.class)
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .cors(cors -> cors.disable()); // Disable CORS or configure as needed
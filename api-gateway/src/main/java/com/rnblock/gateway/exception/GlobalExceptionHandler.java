@@ -50,6 +50,28 @@ public class GlobalExceptionHandler {
                 ));
     }
 
+    @ExceptionHandler(QuotaExceededException.class)
+    public ResponseEntity<Map<String, String>> handleQuotaExceeded(QuotaExceededException e) {
+        log.warn("Quota exceeded: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .body(Map.of(
+                    "error", "Too Many Requests",
+                    "message", e.getMessage(),
+                    "timestamp", java.time.Instant.now().toString()
+                ));
+    }
+
+    @ExceptionHandler(PayloadTooLargeException.class)
+    public ResponseEntity<Map<String, String>> handlePayloadTooLarge(PayloadTooLargeException e) {
+        log.warn("Payload too large: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(Map.of(
+                    "error", "Payload Too Large",
+                    "message", e.getMessage(),
+                    "timestamp", java.time.Instant.now().toString()
+                ));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, String>> handleGenericException(Exception e) {
         log.error("Unexpected error in gateway", e);
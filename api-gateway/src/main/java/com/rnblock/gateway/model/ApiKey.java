@@ -26,6 +26,12 @@ public class ApiKey {
     @Column(name = "id", nullable = false)
     private String id; // UUID as Text
 
+    /**
+     * Insertion order, assigned by the database (identity column)
+     */
+    @Column(name = "seq", insertable = false, updatable = false)
+    private Long seq;
+
     /**
      * SHA-256 + Pepper hash of the API key
      */
@@ -2,8 +2,10 @@ package com.rnblock.gateway.repository;
 
 import com.rnblock.gateway.model.ApiKey;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -17,4 +19,21 @@ public interface ApiKeyRepository extends JpaRepository<ApiKey, String> {
      * Find API key by its hash (SHA-256 + Pepper).
      */
     Optional<ApiKey> findByKeyHash(String keyHash);
+
+    /**
+     * All key hashes, used to build the known-keys Bloom filter.
+     */
+    @Query("SELECT k.keyHash FROM ApiKey k")
+    List<String> findAllKeyHashes();
+
+    /**
+     * Sequence number of the most recent key (null if there is none).
+     */
+    @Query("SELECT MAX(k.seq) FROM ApiKey k")
+    Long findLatestSeq();
+
+    /**
+     * Keys inserted after the given sequence number, used to keep the Bloom filter in sync.
+     */
+    List<ApiKey> findBySeqGreaterThanOrderBySeq(Long seq);
 }
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -18,6 +19,7 @@ public interface TestWalletRepository extends JpaRepository<TestWallet, String>
      * Atomically decrement test wallet balance if positive.
      * Returns number of rows affected (1 if successful, 0 if insufficient balance).
      */
+    @Transactional
     @Modifying
     @Query("UPDATE TestWallet tw SET tw.balance = tw.balance - 1 " +
            "WHERE tw.userId = :userId AND tw.balance > 0")
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -18,8 +19,29 @@ public interface WalletRepository extends JpaRepository<Wallet, String> {
      * Atomically decrement wallet balance if positive and increment totalUsed.
      * Returns number of rows affected (1 if successful, 0 if insufficient balance).
      */
+    @Transactional
     @Modifying
     @Query("UPDATE Wallet w SET w.balance = w.balance - 1, w.totalUsed = w.totalUsed + 1, w.updatedAt = CURRENT_TIMESTAMP " +
            "WHERE w.orgId = :orgId AND w.balance > 0")
     int decrementBalanceIfPositive(@Param("orgId") String orgId);
+
+    /**
+     * Atomically move a block of credits out of the balance into a gateway reservation.
+     * Returns number of rows affected (1 if reserved, 0 if balance is lower than amount).
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Wallet w SET w.balance = w.balance - :amount, w.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE w.orgId = :orgId AND w.balance >= :amount")
+    int reserveCredits(@Param("orgId") String orgId, @Param("amount") int amount);
+
+    /**
+     * Settle a gateway reservation: record consumed credits in totalUsed
+     * and give unconsumed credits back to the balance.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Wallet w SET w.balance = w.balance + :released, w.totalUsed = w.totalUsed + :used, " +
+           "w.updatedAt = CURRENT_TIMESTAMP WHERE w.orgId = :orgId")
+    int settleReservation(@Param("orgId") String orgId, @Param("used") int used, @Param("released") int released);
 }
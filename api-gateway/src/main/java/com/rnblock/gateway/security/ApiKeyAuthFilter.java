@@ -1,10 +1,13 @@
 package com.rnblock.gateway.security;
 
 import com.rnblock.gateway.exception.InvalidApiKeyException;
+import com.rnblock.gateway.service.AdmissionMetrics;
 import com.rnblock.gateway.service.ApiKeyValidationService;
+import com.rnblock.gateway.service.UsageTracker;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,18 +15,30 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 /**
  * Security filter that validates API key before routing to backend services.
  * Extracts key from Authorization Bearer or X-API-Key header.
  * Calls validation service - exceptions are handled by GlobalExceptionHandler.
+ * Successful calls are recorded asynchronously by {@link UsageTracker}.
+ * Admission latency is timed per gateway route by {@link AdmissionMetrics}.
+ * The rate limit plan of the key is passed to the backend in {@value #PLAN_HEADER},
+ * replacing any value sent by the client.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class ApiKeyAuthFilter extends OncePerRequestFilter {
 
+    public static final String PLAN_HEADER = "X-Api-Plan";
+
     private final ApiKeyValidationService validationService;
+    private final UsageTracker usageTracker;
+    private final AdmissionMetrics admissionMetrics;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
@@ -33,15 +48,20 @@ public class ApiKeyAuthFilter extends OncePerRequestFilter {
             throw new InvalidApiKeyException("API key header is missing or invalid");
         }
 
+        ApiKeyValidationService.ApiKeyDetails details;
         try {
-            validationService.validateApiKey(apiKey);
+            details = validationService.validateApiKey(apiKey,
+                    admissionMetrics.route(request.getRequestURI()));
+            // Client address as resolved by the RemoteIpValve (server.forward-headers-strategy):
+            // X-Forwarded-For is only honored from trusted proxies, so a client cannot spoof it
+            usageTracker.record(details.keyId(), request.getRemoteAddr());
             log.debug("API key validated for path: {}", request.getRequestURI());
         } catch (Exception e) {
             log.warn("API key validation failed for path {}: {}", request.getRequestURI(), e.getMessage());
             throw e; // Let GlobalExceptionHandler handle
         }
 
-        filterChain.doFilter(request, response);
+        filterChain.doFilter(new AdmittedRequest(request, details.plan()), response);
     }
 
     private String extractApiKey(HttpServletRequest request) {
@@ -66,4 +86,39 @@ public class ApiKeyAuthFilter extends OncePerRequestFilter {
         // Only apply to /api/** paths
         return !path.startsWith("/api/");
     }
-}
\ No newline at end of file
+
+    /**
+     * Request carrying the plan of its key in {@link #PLAN_HEADER}, whatever the client sent.
+     */
+    private static final class AdmittedRequest extends HttpServletRequestWrapper {
+        private final String plan;
+
+        private AdmittedRequest(HttpServletRequest request, String plan) {
+            super(request);
+            this.plan = plan;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return PLAN_HEADER.equalsIgnoreCase(name) ? plan : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return PLAN_HEADER.equalsIgnoreCase(name) ? Collections.enumeration(Set.of(plan)) : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            Set<String> names = new LinkedHashSet<>();
+            for (Enumeration<String> e = super.getHeaderNames(); e.hasMoreElements(); ) {
+                String name = e.nextElement();
+                if (!PLAN_HEADER.equalsIgnoreCase(name)) {
+                    names.add(name);
+                }
+            }
+            names.add(PLAN_HEADER);
+            return Collections.enumeration(names);
+        }
+    }
+}
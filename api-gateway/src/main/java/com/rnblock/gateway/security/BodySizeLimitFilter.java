@@ -0,0 +1,150 @@
+package com.rnblock.gateway.security;
+
+import com.rnblock.gateway.config.BodyLimitProperties;
+import com.rnblock.gateway.exception.PayloadTooLargeException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Enforces request body size limits without reading the body.
+ *
+ * A declared Content-Length over the limit is rejected before API key validation
+ * (no credit is spent). Chunked bodies are counted while the proxy streams them
+ * to the backend; the transfer is aborted with {@link PayloadTooLargeException}
+ * as soon as the limit is crossed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BodySizeLimitFilter extends OncePerRequestFilter {
+
+    private final BodyLimitProperties properties;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long maxSize = maxSize(request.getRequestURI());
+        if (maxSize < 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long contentLength = request.getContentLengthLong();
+        if (contentLength > maxSize) {
+            log.warn("Rejected body of {} bytes for path {} (limit {})", contentLength, request.getRequestURI(), maxSize);
+            response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(("{\"error\":\"Payload Too Large\",\"message\":\"Request body exceeds "
+                    + maxSize + " bytes\",\"timestamp\":\"" + Instant.now() + "\"}").getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        filterChain.doFilter(contentLength >= 0 ? request : new LimitedRequest(request, maxSize), response);
+    }
+
+    private long maxSize(String path) {
+        for (BodyLimitProperties.Limit limit : properties.getLimits()) {
+            if (path.startsWith(limit.getPathPrefix())) {
+                return limit.getMaxSize().toBytes();
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return properties.getLimits().isEmpty();
+    }
+
+    /**
+     * Request whose body stream fails once more than maxSize bytes have been read.
+     */
+    private static final class LimitedRequest extends HttpServletRequestWrapper {
+        private final long maxSize;
+        private ServletInputStream inputStream;
+
+        private LimitedRequest(HttpServletRequest request, long maxSize) {
+            super(request);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = new LimitedInputStream(super.getInputStream(), maxSize);
+            }
+            return inputStream;
+        }
+    }
+
+    private static final class LimitedInputStream extends ServletInputStream {
+        private final ServletInputStream delegate;
+        private final long maxSize;
+        private long count;
+
+        private LimitedInputStream(ServletInputStream delegate, long maxSize) {
+            this.delegate = delegate;
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = delegate.read(buffer, offset, length);
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        private void count(int read) {
+            count += read;
+            if (count > maxSize) {
+                throw new PayloadTooLargeException("Request body exceeds " + maxSize + " bytes");
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            delegate.setReadListener(readListener);
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.rnblock.gateway.service;
+
+import com.rnblock.gateway.exception.InsufficientCreditsException;
+import com.rnblock.gateway.exception.InvalidApiKeyException;
+import com.rnblock.gateway.exception.QuotaExceededException;
+import com.rnblock.gateway.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cloud.gateway.server.mvc.config.GatewayMvcProperties;
+import org.springframework.cloud.gateway.server.mvc.config.PredicateProperties;
+import org.springframework.cloud.gateway.server.mvc.config.RouteProperties;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Latency of the admission pipeline ({@link ApiKeyValidationService#validateApiKey}).
+ *
+ * Two timers, tagged by route id, environment (production / test, none before the key
+ * is resolved) and outcome (ok, 401, 402, 429 or error):
+ * {@code gateway.admission} for the whole admission and {@code gateway.admission.stage}
+ * for each stage (additional tag {@code stage}). A failed admission is recorded on the
+ * stage that rejected it.
+ *
+ * Timers are registered on first use and kept in an array indexed by their tags, so
+ * recording a request only reads {@link System#nanoTime()} and updates existing timers:
+ * nothing is allocated on the success path. Histograms are configured through
+ * {@code management.metrics.distribution.*} for the {@code gateway.admission} prefix.
+ */
+@Service
+public class AdmissionMetrics {
+
+    public static final String ADMISSION_TIMER = "gateway.admission";
+    public static final String STAGE_TIMER = "gateway.admission.stage";
+
+    private static final String UNKNOWN_ROUTE = "unknown";
+
+    public enum Stage {
+        HASH("hash"),
+        RESOLVE("resolve"),
+        QUOTA("quota"),
+        RATE_LIMIT("rate-limit"),
+        REDIS_ADMISSION("redis-admission"),
+        WALLET_UPDATE("wallet-update"),
+        WALLET_SELECT("wallet-select");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    public enum Environment {
+        NONE("none"),
+        PRODUCTION("production"),
+        TEST("test");
+
+        private final String tag;
+
+        Environment(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    public enum Outcome {
+        OK("ok"),
+        UNAUTHORIZED("401"),
+        PAYMENT_REQUIRED("402"),
+        TOO_MANY_REQUESTS("429"),
+        ERROR("error");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+
+        public static Outcome of(Throwable failure) {
+            if (failure instanceof InvalidApiKeyException) {
+                return UNAUTHORIZED;
+            }
+            if (failure instanceof InsufficientCreditsException) {
+                return PAYMENT_REQUIRED;
+            }
+            if (failure instanceof RateLimitExceededException || failure instanceof QuotaExceededException) {
+                return TOO_MANY_REQUESTS;
+            }
+            return ERROR;
+        }
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+    private static final Environment[] ENVIRONMENTS = Environment.values();
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    private final MeterRegistry meterRegistry;
+    private final Route[] routes;
+    private final Route unknownRoute;
+
+    public AdmissionMetrics(MeterRegistry meterRegistry, GatewayMvcProperties gatewayProperties) {
+        this.meterRegistry = meterRegistry;
+        List<Route> configured = new ArrayList<>();
+        for (RouteProperties route : gatewayProperties.getRoutes()) {
+            for (String prefix : pathPrefixes(route)) {
+                configured.add(new Route(route.getId(), prefix));
+            }
+        }
+        this.routes = configured.toArray(Route[]::new);
+        this.unknownRoute = new Route(UNKNOWN_ROUTE, "");
+    }
+
+    /**
+     * Route of a request path, by the Path predicates of the gateway routes (first match wins).
+     */
+    public Route route(String path) {
+        for (Route route : routes) {
+            if (path.startsWith(route.prefix)) {
+                return route;
+            }
+        }
+        return unknownRoute;
+    }
+
+    public Route unknownRoute() {
+        return unknownRoute;
+    }
+
+    /**
+     * Records a successful stage started at {@code startNanos}.
+     *
+     * @return the end of the stage, start of the next one
+     */
+    public long stage(Route route, Environment environment, Stage stage, long startNanos) {
+        long now = System.nanoTime();
+        route.stageTimer(this, environment, stage, Outcome.OK).record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    /**
+     * Records a successful admission started at {@code startNanos}.
+     */
+    public void admitted(Route route, Environment environment, long startNanos) {
+        route.admissionTimer(this, environment, Outcome.OK)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records an admission rejected (or failed) by {@code stage}.
+     */
+    public void rejected(Route route, Environment environment, Stage stage, Throwable failure,
+                         long stageStartNanos, long startNanos) {
+        long now = System.nanoTime();
+        Outcome outcome = Outcome.of(failure);
+        route.stageTimer(this, environment, stage, outcome).record(now - stageStartNanos, TimeUnit.NANOSECONDS);
+        route.admissionTimer(this, environment, outcome).record(now - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer register(String route, Environment environment, Stage stage, Outcome outcome) {
+        Timer.Builder builder = Timer.builder(stage == null ? ADMISSION_TIMER : STAGE_TIMER)
+                .tag("route", route)
+                .tag("environment", environment.tag)
+                .tag("outcome", outcome.tag);
+        if (stage == null) {
+            builder.description("Time to admit a request (API key, rate limits, quotas, credits)");
+        } else {
+            builder.tag("stage", stage.tag).description("Time spent in one stage of the admission pipeline");
+        }
+        return builder.register(meterRegistry);
+    }
+
+    private static List<String> pathPrefixes(RouteProperties route) {
+        List<String> prefixes = new ArrayList<>();
+        for (PredicateProperties predicate : route.getPredicates()) {
+            if (!"Path".equalsIgnoreCase(predicate.getName())) {
+                continue;
+            }
+            for (String pattern : predicate.getArgs().values()) {
+                for (String path : pattern.split(",")) {
+                    // /api/v1/template/** -> /api/v1/template/
+                    String trimmed = path.trim();
+                    int wildcard = trimmed.indexOf('*');
+                    prefixes.add(wildcard < 0 ? trimmed : trimmed.substring(0, wildcard));
+                }
+            }
+        }
+        return prefixes;
+    }
+
+    /**
+     * Timers of one gateway route, registered on first use.
+     */
+    public static final class Route {
+
+        private final String id;
+        private final String prefix;
+        private final AtomicReferenceArray<Timer> admissionTimers =
+                new AtomicReferenceArray<>(ENVIRONMENTS.length * OUTCOMES.length);
+        private final AtomicReferenceArray<Timer> stageTimers =
+                new AtomicReferenceArray<>(ENVIRONMENTS.length * STAGES.length * OUTCOMES.length);
+
+        private Route(String id, String prefix) {
+            this.id = id;
+            this.prefix = prefix;
+        }
+
+        public String id() {
+            return id;
+        }
+
+        private Timer admissionTimer(AdmissionMetrics metrics, Environment environment, Outcome outcome) {
+            int index = environment.ordinal() * OUTCOMES.length + outcome.ordinal();
+            Timer timer = admissionTimers.get(index);
+            if (timer == null) {
+                // Concurrent registrations return the same meter from the registry
+                timer = metrics.register(id, environment, null, outcome);
+                admissionTimers.set(index, timer);
+            }
+            return timer;
+        }
+
+        private Timer stageTimer(AdmissionMetrics metrics, Environment environment, Stage stage, Outcome outcome) {
+            int index = (environment.ordinal() * STAGES.length + stage.ordinal()) * OUTCOMES.length + outcome.ordinal();
+            Timer timer = stageTimers.get(index);
+            if (timer == null) {
+                timer = metrics.register(id, environment, stage, outcome);
+                stageTimers.set(index, timer);
+            }
+            return timer;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.rnblock.gateway.service;
+
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies API key lifecycle events published on Redis to the local key cache.
+ *
+ * Messages are {@code <event>:<keyHash>} where event is one of
+ * {@code created}, {@code updated}, {@code revoked} or {@code deleted}, e.g.
+ * {@code PUBLISH api-keys:events revoked:9f86d08...}, published by the provider after each
+ * change. Lettuce resubscribes automatically after a reconnect; created events missed meanwhile
+ * are caught up by the Bloom filter sync, the others expire with the cache TTL.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ApiKeyEventListener extends RedisPubSubAdapter<String, String> {
+
+    private final StatefulRedisPubSubConnection<String, String> apiKeyEventsConnection;
+    private final ApiKeyResolver apiKeyResolver;
+
+    @Value("${api.keys.events.channel:api-keys:events}")
+    private String channel;
+
+    @PostConstruct
+    public void subscribe() {
+        apiKeyEventsConnection.addListener(this);
+        apiKeyEventsConnection.async().subscribe(channel);
+        log.info("Listening for API key events on Redis channel {}", channel);
+    }
+
+    @Override
+    public void message(String eventChannel, String message) {
+        int separator = message.indexOf(':');
+        if (separator <= 0 || separator == message.length() - 1) {
+            log.warn("Ignoring malformed API key event: {}", message);
+            return;
+        }
+
+        String event = message.substring(0, separator);
+        KeyHash keyHash;
+        try {
+            keyHash = KeyHash.fromHex(message.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring API key event with invalid hash: {}", message);
+            return;
+        }
+        switch (event) {
+            case "created" -> apiKeyResolver.register(keyHash);
+            case "updated", "revoked", "deleted" -> apiKeyResolver.invalidate(keyHash);
+            default -> log.warn("Ignoring unknown API key event: {}", event);
+        }
+        log.debug("Applied API key event {} for {}", event, keyHash);
+    }
+}
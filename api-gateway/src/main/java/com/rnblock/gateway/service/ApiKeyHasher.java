@@ -0,0 +1,126 @@
+package com.rnblock.gateway.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Computes SHA-256(key + pepper) without per-call allocation.
+ *
+ * Digests and their buffers are kept in a small striped pool (works the same for
+ * platform and virtual threads), the pepper is encoded once, ASCII keys are copied
+ * into a reusable byte buffer and the digest is written into a reusable output array
+ * read back as a {@link KeyHash}.
+ */
+@Component
+public class ApiKeyHasher {
+
+    private final byte[] pepper;
+    private final MessageDigest prototype;
+    private final AtomicReferenceArray<HashState> pool;
+    private final int poolMask;
+
+    public ApiKeyHasher(@Value("${api.key.pepper}") String pepper) {
+        this.pepper = pepper == null ? new byte[0] : pepper.getBytes(StandardCharsets.UTF_8);
+        try {
+            this.prototype = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+        int size = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 4) - 1) << 1;
+        this.pool = new AtomicReferenceArray<>(size);
+        this.poolMask = size - 1;
+    }
+
+    public boolean isConfigured() {
+        return pepper.length > 0;
+    }
+
+    /**
+     * Hashes a plain API key with the configured pepper.
+     */
+    public KeyHash hash(String plainKey) {
+        int slot = (int) Thread.currentThread().threadId() & poolMask;
+        HashState state = acquire(slot);
+        try {
+            MessageDigest digest = state.digest;
+            int length = plainKey.length();
+            byte[] input = state.input(length);
+            int i = 0;
+            while (i < length) {
+                char c = plainKey.charAt(i);
+                if (c >= 0x80) {
+                    break;
+                }
+                input[i++] = (byte) c;
+            }
+            if (i == length) {
+                digest.update(input, 0, length);
+            } else {
+                // Keys are base64url; non-ASCII input only comes from garbage headers
+                digest.update(plainKey.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update(pepper);
+            digest.digest(state.output, 0, KeyHash.BYTES);
+            return KeyHash.of(state.output, 0);
+        } catch (DigestException e) {
+            throw new IllegalStateException("SHA-256 digest failed", e);
+        } finally {
+            release(slot, state);
+        }
+    }
+
+    private HashState acquire(int slot) {
+        for (int i = 0; i <= poolMask; i++) {
+            HashState state = pool.getAndSet((slot + i) & poolMask, null);
+            if (state != null) {
+                return state;
+            }
+        }
+        return new HashState(cloneDigest());
+    }
+
+    private void release(int slot, HashState state) {
+        state.digest.reset();
+        for (int i = 0; i <= poolMask; i++) {
+            if (pool.compareAndSet((slot + i) & poolMask, null, state)) {
+                return;
+            }
+        }
+        // Pool full: let this state be collected
+    }
+
+    private MessageDigest cloneDigest() {
+        try {
+            return (MessageDigest) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IllegalStateException("SHA-256 algorithm not available", ex);
+            }
+        }
+    }
+
+    private static final class HashState {
+        private final MessageDigest digest;
+        private final byte[] output = new byte[KeyHash.BYTES];
+        private byte[] input = new byte[64];
+
+        private HashState(MessageDigest digest) {
+            this.digest = digest;
+        }
+
+        private byte[] input(int length) {
+            if (input.length < length) {
+                input = new byte[Math.max(length, input.length * 2)];
+            }
+            return input;
+        }
+    }
+}
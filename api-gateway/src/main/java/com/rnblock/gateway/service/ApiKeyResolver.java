@@ -0,0 +1,233 @@
+package com.rnblock.gateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rnblock.gateway.model.ApiKey;
+import com.rnblock.gateway.repository.ApiKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resolves key hashes to API keys for the validation path.
+ *
+ * Lookups go through three layers before reaching {@link ApiKeyRepository#findByKeyHash}:
+ * a bounded negative cache of hashes known not to exist, a Bloom filter of every known keyHash,
+ * and the positive cache of API keys. A hash missing from the filter is rejected without any
+ * query, so random keys never reach the database. New keys enter the filter through the
+ * {@code created} event published by the provider ({@link #register(KeyHash)}) and, should the
+ * event be missed, through the periodic {@code seq} sync. Revocations and updates are applied on
+ * every gateway instance through {@link #invalidate(KeyHash)}, called from Redis pub/sub events.
+ */
+@Service
+@Slf4j
+public class ApiKeyResolver {
+
+    public static final String CACHE_NAME = "api-keys";
+
+    private static final long NO_KEYS = 0;
+    // Keys re-read below the watermark at each sync, see syncBloomFilter
+    private static final long SYNC_OVERLAP = 1000;
+
+    private final ApiKeyRepository apiKeyRepository;
+    private final Cache<KeyHash, ApiKey> apiKeys;
+    private final Cache<KeyHash, Boolean> unknownKeys;
+    private final boolean bloomFilterEnabled;
+    private final int expectedKeys;
+    private final double falsePositiveRate;
+
+    private final ConcurrentMap<KeyHash, CompletableFuture<ApiKey>> loading = new ConcurrentHashMap<>();
+
+    private volatile KeyHashBloomFilter knownKeys;
+    private volatile Long lastSeq;
+
+    public ApiKeyResolver(
+            ApiKeyRepository apiKeyRepository,
+            @Value("${api.keys.cache.maximum-size:10000}") long maximumSize,
+            @Value("${api.keys.cache.ttl:PT1H}") Duration ttl,
+            @Value("${api.keys.cache.negative.maximum-size:10000}") long negativeMaximumSize,
+            @Value("${api.keys.cache.negative.ttl:PT5M}") Duration negativeTtl,
+            @Value("${api.keys.cache.bloom-filter.enabled:true}") boolean bloomFilterEnabled,
+            @Value("${api.keys.cache.bloom-filter.expected-keys:100000}") int expectedKeys,
+            @Value("${api.keys.cache.bloom-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.apiKeyRepository = apiKeyRepository;
+        this.apiKeys = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.unknownKeys = Caffeine.newBuilder()
+                .maximumSize(negativeMaximumSize)
+                .expireAfterWrite(negativeTtl)
+                .build();
+        this.bloomFilterEnabled = bloomFilterEnabled;
+        this.expectedKeys = expectedKeys;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * Returns the API key for this hash, or null if no such key exists.
+     */
+    public ApiKey resolve(KeyHash keyHash) {
+        if (unknownKeys.getIfPresent(keyHash) != null) {
+            return null;
+        }
+        KeyHashBloomFilter filter = knownKeys;
+        if (filter != null && !filter.mightContain(keyHash)) {
+            return null;
+        }
+
+        ApiKey apiKey = apiKeys.getIfPresent(keyHash);
+        if (apiKey != null) {
+            return apiKey;
+        }
+
+        return load(keyHash);
+    }
+
+    /**
+     * Loads a key missing from the cache, one query per key however many requests miss it.
+     *
+     * Not Cache.get(key, loader): the loader runs while holding a ConcurrentHashMap bin lock
+     * (synchronized), which pins a virtual thread during the query. The first request registers
+     * a future and queries; the others wait on that future, which unmounts them.
+     */
+    private ApiKey load(KeyHash keyHash) {
+        CompletableFuture<ApiKey> load = new CompletableFuture<>();
+        CompletableFuture<ApiKey> inFlight = loading.putIfAbsent(keyHash, load);
+        if (inFlight != null) {
+            return join(inFlight);
+        }
+        try {
+            // Another load may have completed between the cache miss and putIfAbsent
+            ApiKey apiKey = apiKeys.getIfPresent(keyHash);
+            if (apiKey == null) {
+                apiKey = apiKeyRepository.findByKeyHash(keyHash.toHex()).orElse(null);
+                if (apiKey == null) {
+                    unknownKeys.put(keyHash, Boolean.TRUE);
+                } else {
+                    ApiKey cached = apiKeys.asMap().putIfAbsent(keyHash, apiKey);
+                    apiKey = cached != null ? cached : apiKey;
+                }
+            }
+            load.complete(apiKey);
+            return apiKey;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(keyHash, load);
+        }
+    }
+
+    /**
+     * Drops any cached state for this hash (key revoked, updated or deleted).
+     */
+    public void invalidate(KeyHash keyHash) {
+        apiKeys.invalidate(keyHash);
+        unknownKeys.invalidate(keyHash);
+    }
+
+    /**
+     * Registers a newly created key so it passes the Bloom filter before the next sync.
+     */
+    public void register(KeyHash keyHash) {
+        KeyHashBloomFilter filter = knownKeys;
+        if (filter != null) {
+            filter.put(keyHash);
+        }
+        unknownKeys.invalidate(keyHash);
+    }
+
+    public Cache<KeyHash, ApiKey> getCache() {
+        return apiKeys;
+    }
+
+    /**
+     * Rebuilds the Bloom filter from all key hashes, dropping deleted keys.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${api.keys.cache.bloom-filter.rebuild-interval:PT1H}",
+            fixedDelayString = "${api.keys.cache.bloom-filter.rebuild-interval:PT1H}")
+    public void rebuildBloomFilter() {
+        if (!bloomFilterEnabled) {
+            return;
+        }
+        try {
+            Long watermark = apiKeyRepository.findLatestSeq();
+            List<String> keyHashes = apiKeyRepository.findAllKeyHashes();
+            KeyHashBloomFilter filter = KeyHashBloomFilter.create(
+                    Math.max(expectedKeys, keyHashes.size() * 2), falsePositiveRate);
+            for (String keyHash : keyHashes) {
+                KeyHash parsed = parse(keyHash);
+                if (parsed != null) {
+                    filter.put(parsed);
+                }
+            }
+
+            knownKeys = filter;
+            lastSeq = watermark != null ? watermark : NO_KEYS;
+            log.info("API key Bloom filter rebuilt with {} keys", keyHashes.size());
+        } catch (RuntimeException e) {
+            log.error("Failed to rebuild API key Bloom filter, keeping previous one", e);
+        }
+    }
+
+    /**
+     * Adds keys inserted since the last sync to the Bloom filter.
+     *
+     * The watermark is the identity column {@code seq}, not the creation time: it does not depend
+     * on clocks. Identity values are taken at insert, not at commit, so a key can become visible
+     * after a key with a higher seq was synced: the last {@link #SYNC_OVERLAP} seqs below the
+     * watermark are read again at each sync. This is the fallback of the {@code created} event.
+     */
+    @Scheduled(fixedDelayString = "${api.keys.cache.bloom-filter.sync-interval:PT10S}")
+    public void syncBloomFilter() {
+        Long since = lastSeq;
+        if (knownKeys == null || since == null) {
+            return;
+        }
+        try {
+            long watermark = since;
+            for (ApiKey apiKey : apiKeyRepository.findBySeqGreaterThanOrderBySeq(since - SYNC_OVERLAP)) {
+                KeyHash keyHash = parse(apiKey.getKeyHash());
+                if (keyHash != null) {
+                    register(keyHash);
+                }
+                watermark = Math.max(watermark, apiKey.getSeq());
+            }
+            lastSeq = watermark;
+        } catch (RuntimeException e) {
+            log.warn("Failed to sync API key Bloom filter: {}", e.getMessage());
+        }
+    }
+
+    // Rethrows the failure of the query as is, not wrapped in a CompletionException
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    // Hashes that are not 64 hex digits can never match a computed hash
+    private static KeyHash parse(String keyHash) {
+        try {
+            return KeyHash.fromHex(keyHash);
+        } catch (IllegalArgumentException e) {
+            log.warn("Skipping malformed keyHash in api_keys: {}", keyHash);
+            return null;
+        }
+    }
+}
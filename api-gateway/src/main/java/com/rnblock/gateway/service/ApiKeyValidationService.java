@@ -6,27 +6,11 @@ import com.rnblock.gateway.exception.RateLimitExceededException;
 import com.rnblock.gateway.model.ApiKey;
 import com.rnblock.gateway.model.TestWallet;
 import com.rnblock.gateway.model.Wallet;
-import com.rnblock.gateway.repository.ApiKeyRepository;
 import com.rnblock.gateway.repository.TestWalletRepository;
 import com.rnblock.gateway.repository.WalletRepository;
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.BucketConfiguration;
-import io.github.bucket4j.Refill;
-import io.github.bucket4j.distributed.BucketProxy;
-import io.github.bucket4j.redis.lettuce.cas.LettuceBasedProxyManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.time.Duration;
-import java.util.function.Supplier;
 
 /**
  * Service for API key validation, credit management (via Wallet), and rate limiting.
@@ -36,122 +20,175 @@ import java.util.function.Supplier;
 @Slf4j
 public class ApiKeyValidationService {
 
-    private final ApiKeyRepository apiKeyRepository;
     private final WalletRepository walletRepository;
     private final TestWalletRepository testWalletRepository;
-    private final CacheManager cacheManager;
-    private final LettuceBasedProxyManager<String> rateLimitProxyManager;
-
-    @Value("${api.key.pepper}")
-    private String apiKeyPepper;
-
-    // Default rate limit since column is deprecated/managed elsewhere
-    private static final int DEFAULT_RATE_LIMIT = 10;
+    private final ApiKeyResolver apiKeyResolver;
+    private final ApiKeyHasher apiKeyHasher;
+    private final TieredRateLimiter rateLimiter;
+    private final RateLimitPlans rateLimitPlans;
+    private final QuotaService quotaService;
+    private final CreditLedger creditLedger;
+    private final RedisAdmissionService redisAdmissionService;
+    private final AdmissionMetrics admissionMetrics;
 
     /**
-     * Validates API key, checks rate limit, deducts credits from Wallet atomically.
+     * Validates API key, checks the rate limits of its plan and its quotas, deducts credits from Wallet atomically.
+     * The quotas only count admitted requests.
+     * Each wallet UPDATE runs in its own short transaction, so no database connection
+     * is held while the rate limit is checked.
      */
-    @Transactional
     public ApiKeyDetails validateApiKey(String plainApiKey) {
+        return validateApiKey(plainApiKey, admissionMetrics.unknownRoute());
+    }
+
+    /**
+     * Same as {@link #validateApiKey(String)}, each stage being timed for this gateway route
+     * (see {@link AdmissionMetrics}).
+     */
+    public ApiKeyDetails validateApiKey(String plainApiKey, AdmissionMetrics.Route route) {
         if (plainApiKey == null || plainApiKey.trim().isEmpty()) {
             throw new InvalidApiKeyException("API key is missing");
         }
         
-        if (apiKeyPepper == null || apiKeyPepper.isEmpty()) {
+        if (!apiKeyHasher.isConfigured()) {
             log.error("API_KEY_PEPPER is not configured!");
             throw new RuntimeException("Server configuration error: Pepper missing");
         }
 
-        String plainKey = plainApiKey.trim();
-        // SHA-256(key + pepper)
-        String keyHash = hashApiKey(plainKey + apiKeyPepper);
+        long start = System.nanoTime();
+        long stageStart = start;
+        AdmissionMetrics.Stage stage = AdmissionMetrics.Stage.HASH;
+        AdmissionMetrics.Environment environment = AdmissionMetrics.Environment.NONE;
+        QuotaService.Consumption quota = null;
+        try {
+            String plainKey = plainApiKey.trim();
+            // SHA-256(key + pepper)
+            KeyHash keyHash = apiKeyHasher.hash(plainKey);
+            stageStart = admissionMetrics.stage(route, environment, stage, stageStart);
+
+            // Bloom filter, negative cache, key cache, then DB
+            stage = AdmissionMetrics.Stage.RESOLVE;
+            ApiKey apiKey = apiKeyResolver.resolve(keyHash);
+
+            if (apiKey == null || !apiKey.getIsActive()) {
+                log.warn("Invalid or inactive API key attempted: {}", keyHash);
+                throw new InvalidApiKeyException("API key is invalid or inactive");
+            }
 
-        Cache cache = cacheManager.getCache("api-keys");
-        // Cache lookup or DB
-        ApiKey apiKey = cache.get(keyHash, () ->
-            apiKeyRepository.findByKeyHash(keyHash).orElse(null));
+            boolean isTestEnvironment = "test".equalsIgnoreCase(apiKey.getEnvironment());
+            environment = isTestEnvironment ? AdmissionMetrics.Environment.TEST : AdmissionMetrics.Environment.PRODUCTION;
+            stageStart = admissionMetrics.stage(route, environment, stage, stageStart);
+            RateLimitPlans.RateLimitPlan plan = rateLimitPlans.planFor(apiKey);
+            int remainingCredits;
+
+            if (!isTestEnvironment && redisAdmissionService.isEnabled()) {
+                // Single round trip: token buckets of the plan + credit mirrored in Redis, reconciled to Postgres
+                // asynchronously
+                stage = AdmissionMetrics.Stage.QUOTA;
+                quota = quotaService.consume(apiKey);
+                stageStart = admissionMetrics.stage(route, environment, stage, stageStart);
+
+                stage = AdmissionMetrics.Stage.REDIS_ADMISSION;
+                remainingCredits = redisAdmissionService.admit(keyHash, apiKey.getOrgId(), plan);
+                admissionMetrics.stage(route, environment, stage, stageStart);
+                log.debug("API key validated successfully: {}, org: {}, credits: {}", keyHash, apiKey.getOrgId(), remainingCredits);
+            } else {
+                stage = AdmissionMetrics.Stage.RATE_LIMIT;
+                checkRateLimit(keyHash, plan);
+                stageStart = admissionMetrics.stage(route, environment, stage, stageStart);
+
+                stage = AdmissionMetrics.Stage.QUOTA;
+                quota = quotaService.consume(apiKey);
+                stageStart = admissionMetrics.stage(route, environment, stage, stageStart);
+
+                // Atomic credit deduction based on environment (test vs production)
+                if (isTestEnvironment) {
+                    stage = AdmissionMetrics.Stage.WALLET_UPDATE;
+                    String userId = testWalletUser(apiKey, keyHash);
+                    decrementTestWallet(userId);
+                    stageStart = admissionMetrics.stage(route, environment, stage, stageStart);
+
+                    stage = AdmissionMetrics.Stage.WALLET_SELECT;
+                    remainingCredits = testWalletBalance(userId);
+                    admissionMetrics.stage(route, environment, stage, stageStart);
+                    log.debug("Test API key validated: {}, user: {}, credits: {}", keyHash, userId, remainingCredits);
+                } else if (creditLedger.isEnabled()) {
+                    // Production environment, write-behind: consume a credit reserved from the wallet
+                    stage = AdmissionMetrics.Stage.WALLET_UPDATE;
+                    remainingCredits = creditLedger.debit(apiKey.getOrgId());
+                    admissionMetrics.stage(route, environment, stage, stageStart);
+                    log.debug("API key validated successfully: {}, org: {}, credits: {}", keyHash, apiKey.getOrgId(), remainingCredits);
+                } else {
+                    // Production environment: use wallets (linked to orgId)
+                    stage = AdmissionMetrics.Stage.WALLET_UPDATE;
+                    decrementWallet(apiKey.getOrgId());
+                    stageStart = admissionMetrics.stage(route, environment, stage, stageStart);
+
+                    stage = AdmissionMetrics.Stage.WALLET_SELECT;
+                    remainingCredits = walletBalance(apiKey.getOrgId());
+                    admissionMetrics.stage(route, environment, stage, stageStart);
+                    log.debug("API key validated successfully: {}, org: {}, credits: {}", keyHash, apiKey.getOrgId(), remainingCredits);
+                }
+            }
 
-        if (apiKey == null || !apiKey.getIsActive()) {
-            log.warn("Invalid or inactive API key attempted: {}", keyHash);
-            throw new InvalidApiKeyException("API key is invalid or inactive");
+            admissionMetrics.admitted(route, environment, start);
+            return new ApiKeyDetails(apiKey.getId(), keyHash, apiKey.getOrgId(), remainingCredits, plan.name());
+        } catch (RuntimeException e) {
+            // A request rejected after the quota check (rate limit, credits) does not count against the quota
+            quotaService.refund(quota);
+            admissionMetrics.rejected(route, environment, stage, e, stageStart, start);
+            throw e;
         }
+    }
 
-        // Distributed rate limiting with Bucket4j + Redis
-        String bucketKey = "rate-limit:" + keyHash;
-        Supplier<BucketConfiguration> configSupplier = () -> BucketConfiguration.builder()
-                .addLimit(Bandwidth.classic(DEFAULT_RATE_LIMIT,
-                        Refill.intervally(DEFAULT_RATE_LIMIT, Duration.ofSeconds(1))))
-                .build();
-
-        BucketProxy bucket = rateLimitProxyManager.builder()
-                .build(bucketKey, configSupplier);
-
-        if (!bucket.tryConsume(1)) {
-            log.warn("Rate limit exceeded for key: {}", keyHash);
+    private void checkRateLimit(KeyHash keyHash, RateLimitPlans.RateLimitPlan plan) {
+        // Local tokens borrowed in batches from the distributed Bucket4j bucket in Redis
+        if (!rateLimiter.tryAcquire(keyHash, plan)) {
+            log.warn("Rate limit exceeded for key: {}, plan: {}", keyHash, plan.name());
             throw new RateLimitExceededException("Rate limit exceeded");
         }
+    }
 
-        // Atomic credit deduction based on environment (test vs production)
-        int remainingCredits;
-        boolean isTestEnvironment = "test".equalsIgnoreCase(apiKey.getEnvironment());
-
-        if (isTestEnvironment) {
-            // Test environment: use test_wallets (linked to userId/createdBy)
-            String userId = apiKey.getCreatedBy();
-            if (userId == null) {
-                log.error("Test API key has no createdBy userId: {}", keyHash);
-                throw new InvalidApiKeyException("Test API key configuration error");
-            }
-
-            int rowsUpdated = testWalletRepository.decrementBalanceIfPositive(userId);
-            if (rowsUpdated == 0) {
-                log.warn("Insufficient test credits for user: {}", userId);
-                throw new InsufficientCreditsException("Insufficient test credits");
-            }
-
-            TestWallet testWallet = testWalletRepository.findByUserId(userId)
-                    .orElseThrow(() -> new RuntimeException("Test wallet not found for user: " + userId));
-
-            remainingCredits = testWallet.getBalance();
-            log.debug("Test API key validated: {}, user: {}, credits: {}", keyHash, userId, remainingCredits);
-        } else {
-            // Production environment: use wallets (linked to orgId)
-            int rowsUpdated = walletRepository.decrementBalanceIfPositive(apiKey.getOrgId());
-            if (rowsUpdated == 0) {
-                log.warn("Insufficient credits for org: {}", apiKey.getOrgId());
-                throw new InsufficientCreditsException("Insufficient credits");
-            }
-
-            Wallet wallet = walletRepository.findByOrgId(apiKey.getOrgId())
-                    .orElseThrow(() -> new RuntimeException("Wallet not found for org: " + apiKey.getOrgId()));
+    private String testWalletUser(ApiKey apiKey, KeyHash keyHash) {
+        // Test environment: use test_wallets (linked to userId/createdBy)
+        String userId = apiKey.getCreatedBy();
+        if (userId == null) {
+            log.error("Test API key has no createdBy userId: {}", keyHash);
+            throw new InvalidApiKeyException("Test API key configuration error");
+        }
+        return userId;
+    }
 
-            remainingCredits = wallet.getBalance();
-            log.debug("API key validated successfully: {}, org: {}, credits: {}", keyHash, apiKey.getOrgId(), remainingCredits);
+    private void decrementTestWallet(String userId) {
+        int rowsUpdated = testWalletRepository.decrementBalanceIfPositive(userId);
+        if (rowsUpdated == 0) {
+            log.warn("Insufficient test credits for user: {}", userId);
+            throw new InsufficientCreditsException("Insufficient test credits");
         }
+    }
 
-        return new ApiKeyDetails(keyHash, apiKey.getOrgId(), remainingCredits);
+    private int testWalletBalance(String userId) {
+        TestWallet testWallet = testWalletRepository.findByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("Test wallet not found for user: " + userId));
+        return testWallet.getBalance();
     }
 
-    private String hashApiKey(String input) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hashBytes = digest.digest(input.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hashBytes) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
-            }
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("SHA-256 algorithm not available", e);
+    private void decrementWallet(String orgId) {
+        int rowsUpdated = walletRepository.decrementBalanceIfPositive(orgId);
+        if (rowsUpdated == 0) {
+            log.warn("Insufficient credits for org: {}", orgId);
+            throw new InsufficientCreditsException("Insufficient credits");
         }
     }
 
+    private int walletBalance(String orgId) {
+        Wallet wallet = walletRepository.findByOrgId(orgId)
+                .orElseThrow(() -> new RuntimeException("Wallet not found for org: " + orgId));
+        return wallet.getBalance();
+    }
+
     /**
      * Details returned after successful validation.
      */
-    public record ApiKeyDetails(String keyHash, String orgId, int remainingCredits) {}
+    public record ApiKeyDetails(String keyId, KeyHash keyHash, String orgId, int remainingCredits, String plan) {}
 }
@@ -0,0 +1,224 @@
+package com.rnblock.gateway.service;
+
+import com.rnblock.gateway.exception.InsufficientCreditsException;
+import com.rnblock.gateway.model.Wallet;
+import com.rnblock.gateway.repository.WalletRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind credit ledger for production wallets.
+ *
+ * Credits are reserved from the wallet in blocks with a conditional SQL UPDATE
+ * (the balance is debited before any request is served), then consumed locally
+ * with atomic counters. Consumed credits are flushed to totalUsed periodically,
+ * and reservations idle for longer than the reservation TTL are given back to the balance.
+ *
+ * An org can never spend more than its balance: at most {@code block-size} credits
+ * per org and per gateway instance are held outside of the wallet at any time.
+ * Credits held by an instance that crashes before settling are not returned.
+ */
+@Service
+@Slf4j
+public class CreditLedger {
+
+    private final WalletRepository walletRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${api.credits.ledger.enabled:false}")
+    private boolean enabled;
+
+    @Value("${api.credits.ledger.block-size:50}")
+    private int blockSize;
+
+    @Value("${api.credits.ledger.reservation-ttl:PT5M}")
+    private Duration reservationTtl;
+
+    private final ConcurrentMap<String, Reservation> reservations = new ConcurrentHashMap<>();
+
+    // Settlements that could not be written yet (database unavailable), retried on next flush
+    private final ConcurrentMap<String, Settlement> backlog = new ConcurrentHashMap<>();
+
+    public CreditLedger(WalletRepository walletRepository, PlatformTransactionManager transactionManager) {
+        this.walletRepository = walletRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Consumes one credit for the org, reserving a new block from the wallet when needed.
+     *
+     * @return estimated remaining credits (wallet balance + credits still reserved locally)
+     * @throws InsufficientCreditsException if the wallet cannot cover a single credit
+     */
+    public int debit(String orgId) {
+        while (true) {
+            Reservation reservation = reservations.computeIfAbsent(orgId, id -> new Reservation());
+            long state = reservation.state.get();
+            int available = available(state);
+
+            if (available > 0) {
+                if (reservation.state.compareAndSet(state, pack(available - 1, used(state) + 1))) {
+                    reservation.lastDebitNanos = System.nanoTime();
+                    return reservation.walletBalance + available - 1;
+                }
+                continue;
+            }
+
+            RefillResult result = refill(orgId, reservation);
+            if (result == RefillResult.EXHAUSTED) {
+                log.warn("Insufficient credits for org: {}", orgId);
+                throw new InsufficientCreditsException("Insufficient credits");
+            }
+        }
+    }
+
+    private RefillResult refill(String orgId, Reservation reservation) {
+        reservation.lock.lock();
+        try {
+            if (reservation.closed) {
+                return RefillResult.RETRY;
+            }
+            if (available(reservation.state.get()) > 0) {
+                return RefillResult.RESERVED;
+            }
+
+            // Try a full block first, fall back to a single credit when the wallet is nearly empty
+            Integer granted = transactionTemplate.execute(status -> {
+                int amount = blockSize;
+                if (amount > 1 && walletRepository.reserveCredits(orgId, amount) == 1) {
+                    return amount;
+                }
+                return walletRepository.reserveCredits(orgId, 1) == 1 ? 1 : 0;
+            });
+
+            if (granted == null || granted == 0) {
+                return RefillResult.EXHAUSTED;
+            }
+
+            reservation.walletBalance = walletRepository.findByOrgId(orgId)
+                    .map(Wallet::getBalance)
+                    .orElse(0);
+            reservation.state.getAndAdd(pack(granted, 0));
+            log.debug("Reserved {} credits for org: {}, wallet balance: {}", granted, orgId, reservation.walletBalance);
+            return RefillResult.RESERVED;
+        } finally {
+            reservation.lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes consumed credits to the wallets and releases idle reservations.
+     */
+    @Scheduled(fixedDelayString = "${api.credits.ledger.flush-interval:PT5S}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long ttlNanos = reservationTtl.toNanos();
+        reservations.forEach((orgId, reservation) -> {
+            if (now - reservation.lastDebitNanos > ttlNanos) {
+                close(orgId, reservation);
+            } else {
+                int used = used(reservation.state.getAndUpdate(s -> pack(available(s), 0)));
+                if (used > 0) {
+                    backlog.merge(orgId, new Settlement(used, 0), Settlement::add);
+                }
+            }
+        });
+
+        settleBacklog();
+    }
+
+    /**
+     * Gives every reserved credit back to the wallets on shutdown.
+     */
+    @PreDestroy
+    public void releaseAll() {
+        if (!enabled) {
+            return;
+        }
+        reservations.forEach(this::close);
+        settleBacklog();
+    }
+
+    private void close(String orgId, Reservation reservation) {
+        reservation.lock.lock();
+        try {
+            reservation.closed = true;
+            reservations.remove(orgId, reservation);
+            long state = reservation.state.getAndSet(0L);
+            if (state != 0L) {
+                backlog.merge(orgId, new Settlement(used(state), available(state)), Settlement::add);
+            }
+        } finally {
+            reservation.lock.unlock();
+        }
+    }
+
+    private void settleBacklog() {
+        for (Map.Entry<String, Settlement> entry : backlog.entrySet()) {
+            String orgId = entry.getKey();
+            Settlement settlement = backlog.remove(orgId);
+            if (settlement == null) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        walletRepository.settleReservation(orgId, settlement.used(), settlement.released()));
+            } catch (RuntimeException e) {
+                log.error("Failed to settle credits for org: {}, will retry", orgId, e);
+                backlog.merge(orgId, settlement, Settlement::add);
+            }
+        }
+    }
+
+    // Reservation state packs available (high 32 bits) and used-since-flush (low 32 bits)
+    // so that a debit moves one credit between them in a single CAS.
+    private static long pack(int available, int used) {
+        return ((long) available << 32) | (used & 0xFFFFFFFFL);
+    }
+
+    private static int available(long state) {
+        return (int) (state >>> 32);
+    }
+
+    private static int used(long state) {
+        return (int) state;
+    }
+
+    private enum RefillResult { RESERVED, EXHAUSTED, RETRY }
+
+    private static final class Reservation {
+        private final AtomicLong state = new AtomicLong();
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile int walletBalance;
+        private volatile long lastDebitNanos = System.nanoTime();
+        private volatile boolean closed;
+    }
+
+    private record Settlement(int used, int released) {
+        Settlement add(Settlement other) {
+            return new Settlement(used + other.used, released + other.released);
+        }
+    }
+}
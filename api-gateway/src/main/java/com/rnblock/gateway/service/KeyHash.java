@@ -0,0 +1,71 @@
+package com.rnblock.gateway.service;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+
+/**
+ * Compact binary form of a keyHash (SHA-256, 4 longs instead of a 64-char hex String).
+ * Used as cache key on the validation path; the hex form is only built for database
+ * lookups and logs.
+ */
+public record KeyHash(long h0, long h1, long h2, long h3) {
+
+    public static final int BYTES = 32;
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Reads a digest output (big-endian, as in the hex form).
+     */
+    public static KeyHash of(byte[] digest, int offset) {
+        return new KeyHash(
+                (long) LONGS.get(digest, offset),
+                (long) LONGS.get(digest, offset + 8),
+                (long) LONGS.get(digest, offset + 16),
+                (long) LONGS.get(digest, offset + 24));
+    }
+
+    /**
+     * Parses the hex form stored in api_keys.keyHash.
+     *
+     * @throws IllegalArgumentException if the value is not 64 hex digits
+     */
+    public static KeyHash fromHex(String hex) {
+        if (hex == null || hex.length() != BYTES * 2) {
+            throw new IllegalArgumentException("Key hash must be 64 hex digits");
+        }
+        return new KeyHash(
+                HexFormat.fromHexDigitsToLong(hex, 0, 16),
+                HexFormat.fromHexDigitsToLong(hex, 16, 32),
+                HexFormat.fromHexDigitsToLong(hex, 32, 48),
+                HexFormat.fromHexDigitsToLong(hex, 48, 64));
+    }
+
+    /**
+     * Lowercase hex form, as produced by the key provider.
+     */
+    public String toHex() {
+        byte[] chars = new byte[BYTES * 2];
+        writeHex(h0, chars, 0);
+        writeHex(h1, chars, 16);
+        writeHex(h2, chars, 32);
+        writeHex(h3, chars, 48);
+        return new String(chars, StandardCharsets.ISO_8859_1);
+    }
+
+    private static void writeHex(long value, byte[] chars, int offset) {
+        for (int i = 15; i >= 0; i--) {
+            chars[offset + i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return toHex();
+    }
+}
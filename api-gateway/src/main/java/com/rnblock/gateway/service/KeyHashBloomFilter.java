@@ -0,0 +1,62 @@
+package com.rnblock.gateway.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over key hashes.
+ *
+ * The key hashes are already uniformly distributed, so the probe positions are
+ * derived directly from the SHA-256 words instead of hashing the value a second time.
+ * Concurrent adds and lookups are safe; a filter is never shrunk, it is rebuilt.
+ */
+final class KeyHashBloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashFunctions;
+
+    private KeyHashBloomFilter(long bitCount, int hashFunctions) {
+        this.words = new AtomicLongArray((int) ((bitCount + 63) >>> 6));
+        this.bitCount = (long) words.length() << 6;
+        this.hashFunctions = hashFunctions;
+    }
+
+    /**
+     * Sizes the filter for the expected number of keys and false positive rate.
+     */
+    static KeyHashBloomFilter create(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(expectedInsertions, 1);
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2));
+        bits = Math.max(64, Math.min(bits, (long) Integer.MAX_VALUE << 6));
+        int k = Math.max(1, (int) Math.round((double) bits / n * ln2));
+        return new KeyHashBloomFilter(bits, k);
+    }
+
+    void put(KeyHash keyHash) {
+        long h1 = keyHash.h0();
+        long h2 = keyHash.h1() | 1L; // odd step so that all probes of a key are distinct
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long word;
+            while (((word = words.get(index)) & mask) == 0
+                    && !words.compareAndSet(index, word, word | mask)) {
+                // retry until the bit is set
+            }
+        }
+    }
+
+    boolean mightContain(KeyHash keyHash) {
+        long h1 = keyHash.h0();
+        long h2 = keyHash.h1() | 1L;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,213 @@
+package com.rnblock.gateway.service;
+
+import com.rnblock.gateway.exception.QuotaExceededException;
+import com.rnblock.gateway.model.ApiKey;
+import io.lettuce.core.api.StatefulRedisConnection;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Daily and monthly quotas of API keys (dailyQuota / monthlyQuota columns).
+ *
+ * Usage is counted in Redis, per key and per calendar day/month (UTC), so that every
+ * gateway instance shares the same counters. The counters are copied to the
+ * dailyUsed / monthlyUsed columns in batches; the columns are a reporting view
+ * and lag behind Redis by at most one flush interval. A request rejected after the
+ * quota check is given back with {@link #refund}, so only admitted requests count.
+ */
+@Service
+@Slf4j
+public class QuotaService {
+
+    private static final String DAILY_PREFIX = "quota:daily:";
+    private static final String MONTHLY_PREFIX = "quota:monthly:";
+
+    private static final long COUNTED = 1;
+    private static final long DAILY_QUOTA_REACHED = 0;
+
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final byte[] UNLIMITED = RedisScript.arg(-1);
+    private static final byte[] DAILY_TTL = RedisScript.arg(Duration.ofDays(2).toSeconds());
+    private static final byte[] MONTHLY_TTL = RedisScript.arg(Duration.ofDays(32).toSeconds());
+
+    private static final String UPDATE_USAGE =
+            "UPDATE api_keys SET \"dailyUsed\" = ?, \"monthlyUsed\" = ? WHERE id = ?";
+
+    private final StatefulRedisConnection<String, byte[]> redisConnection;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${api.quotas.enabled:true}")
+    private boolean enabled;
+
+    @Value("${api.quotas.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    private RedisScript script;
+    private RedisScript refundScript;
+    private volatile Period period = Period.of(LocalDate.now(ZoneOffset.UTC));
+
+    // Latest counters seen by this instance, per key id, not yet written to api_keys
+    private final ConcurrentMap<String, Usage> pending = new ConcurrentHashMap<>();
+
+    public QuotaService(StatefulRedisConnection<String, byte[]> redisConnection, JdbcTemplate jdbcTemplate) {
+        this.redisConnection = redisConnection;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void loadScript() {
+        if (enabled) {
+            script = RedisScript.load(redisConnection, "scripts/quota.lua");
+            refundScript = RedisScript.load(redisConnection, "scripts/quota-refund.lua");
+        }
+    }
+
+    /**
+     * Counts one request against the quotas of this key.
+     *
+     * @return what to give back with {@link #refund} if the request is rejected later on,
+     *         null if quotas are disabled
+     * @throws QuotaExceededException if the daily or monthly quota is reached
+     */
+    public Consumption consume(ApiKey apiKey) {
+        if (!enabled) {
+            return null;
+        }
+        Period current = currentPeriod();
+        String keyId = apiKey.getId();
+        String[] keys = {DAILY_PREFIX + keyId + ":" + current.day(), MONTHLY_PREFIX + keyId + ":" + current.month()};
+
+        List<Object> result = script.evalMulti(keys, quotaArg(apiKey.getDailyQuota()),
+                quotaArg(apiKey.getMonthlyQuota()), DAILY_TTL, MONTHLY_TTL);
+        long status = (Long) result.get(0);
+        if (status == COUNTED) {
+            record(keyId, new Usage(current.day(), ((Long) result.get(1)).intValue(), ((Long) result.get(2)).intValue()));
+            return new Consumption(keyId, keys, current.day());
+        }
+
+        log.warn("Quota reached for key: {}, daily: {}/{}, monthly: {}/{}", keyId,
+                result.get(1), apiKey.getDailyQuota(), result.get(2), apiKey.getMonthlyQuota());
+        throw new QuotaExceededException(status == DAILY_QUOTA_REACHED
+                ? "Daily quota exceeded"
+                : "Monthly quota exceeded");
+    }
+
+    /**
+     * Gives back a request counted by {@link #consume}, in the day and month it was counted in.
+     * Failures are logged, not thrown: the caller is already rejecting the request.
+     */
+    public void refund(Consumption consumption) {
+        if (consumption == null) {
+            return;
+        }
+        try {
+            List<Object> result = refundScript.evalMulti(consumption.keys());
+            record(consumption.keyId(),
+                    new Usage(consumption.day(), ((Long) result.get(0)).intValue(), ((Long) result.get(1)).intValue()));
+        } catch (RuntimeException e) {
+            log.warn("Failed to refund quota of key: {}: {}", consumption.keyId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the usage counters of recently used keys to api_keys.
+     */
+    @Scheduled(fixedDelayString = "${api.quotas.flush-interval:PT30S}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>(Math.min(pending.size(), flushBatchSize));
+        for (Map.Entry<String, Usage> entry : pending.entrySet()) {
+            Usage usage = entry.getValue();
+            // Only drop the entry if no newer counters arrived meanwhile
+            if (pending.remove(entry.getKey(), usage)) {
+                batch.add(new Object[]{usage.daily(), usage.monthly(), entry.getKey()});
+            }
+            if (batch.size() == flushBatchSize) {
+                write(batch);
+                batch = new ArrayList<>(flushBatchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void write(List<Object[]> batch) {
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_USAGE, batch);
+            log.debug("Flushed usage counters of {} API keys", batch.size());
+        } catch (RuntimeException e) {
+            // Counters are absolute values, the next request of each key will schedule them again
+            log.error("Failed to flush usage counters of {} API keys", batch.size(), e);
+        }
+    }
+
+    /**
+     * Keeps the newest counters of the key. Concurrent requests finish in any order, so the
+     * counters last written are not always the latest: within a day the higher ones win, as
+     * counters only go down on a refund (shown in api_keys until the next request of the key).
+     */
+    private void record(String keyId, Usage usage) {
+        pending.merge(keyId, usage, Usage::latest);
+    }
+
+    private Period currentPeriod() {
+        Period current = period;
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        if (!today.equals(current.date())) {
+            current = Period.of(today);
+            period = current;
+        }
+        return current;
+    }
+
+    private static byte[] quotaArg(Integer quota) {
+        return quota == null || quota < 0 ? UNLIMITED : RedisScript.arg(quota);
+    }
+
+    private record Period(LocalDate date, String day, String month) {
+        static Period of(LocalDate date) {
+            return new Period(date, date.format(DAY), date.format(MONTH));
+        }
+    }
+
+    private record Usage(String day, int daily, int monthly) {
+        static Usage latest(Usage a, Usage b) {
+            int order = a.day().compareTo(b.day());
+            if (order != 0) {
+                // A new day (and maybe month) starts new counters
+                return order > 0 ? a : b;
+            }
+            return new Usage(a.day(), Math.max(a.daily(), b.daily()), Math.max(a.monthly(), b.monthly()));
+        }
+    }
+
+    /**
+     * A request counted against the quotas of a key: its key id, Redis counters and day (yyyyMMdd).
+     */
+    public record Consumption(String keyId, String[] keys, String day) {}
+}
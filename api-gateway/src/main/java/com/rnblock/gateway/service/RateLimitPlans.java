@@ -0,0 +1,90 @@
+package com.rnblock.gateway.service;
+
+import com.rnblock.gateway.config.RateLimitProperties;
+import com.rnblock.gateway.model.ApiKey;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConfigurationBuilder;
+import io.github.bucket4j.Refill;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves the rate limit plan of an API key.
+ *
+ * Bucket configurations are built once per plan at startup and shared by all keys of that plan.
+ */
+@Service
+@Slf4j
+public class RateLimitPlans {
+
+    private static final String PLAN_SCOPE_PREFIX = "plan:";
+
+    private final Map<String, RateLimitPlan> plans = new HashMap<>();
+    private final RateLimitPlan defaultPlan;
+
+    public RateLimitPlans(RateLimitProperties properties) {
+        properties.getPlans().forEach((name, plan) -> plans.put(name, build(name, plan)));
+        RateLimitPlan fallback = plans.get(properties.getDefaultPlan());
+        if (fallback == null) {
+            log.warn("Default rate limit plan '{}' is not configured, using 10 requests per second",
+                    properties.getDefaultPlan());
+            fallback = build(properties.getDefaultPlan(), new RateLimitProperties.Plan());
+        }
+        this.defaultPlan = fallback;
+        log.info("Rate limit plans: {}", plans.keySet());
+    }
+
+    public RateLimitPlan planFor(ApiKey apiKey) {
+        List<String> scopes = apiKey.getScopes();
+        if (scopes != null) {
+            for (String scope : scopes) {
+                if (scope != null && scope.startsWith(PLAN_SCOPE_PREFIX)) {
+                    RateLimitPlan plan = plans.get(scope.substring(PLAN_SCOPE_PREFIX.length()));
+                    if (plan != null) {
+                        return plan;
+                    }
+                }
+            }
+        }
+        RateLimitPlan plan = apiKey.getEnvironment() != null ? plans.get(apiKey.getEnvironment()) : null;
+        return plan != null ? plan : defaultPlan;
+    }
+
+    private static RateLimitPlan build(String name, RateLimitProperties.Plan plan) {
+        List<Limit> limits = new ArrayList<>();
+        limits.add(new Limit(Math.max(1, plan.getBurst()), Duration.ofSeconds(1), false));
+        if (plan.getPerMinute() > 0) {
+            limits.add(new Limit(plan.getPerMinute(), Duration.ofMinutes(1), true));
+        }
+        if (plan.getPerDay() > 0) {
+            limits.add(new Limit(plan.getPerDay(), Duration.ofDays(1), true));
+        }
+
+        ConfigurationBuilder builder = BucketConfiguration.builder();
+        for (Limit limit : limits) {
+            builder.addLimit(Bandwidth.classic(limit.capacity(), limit.greedy()
+                    ? Refill.greedy(limit.capacity(), limit.period())
+                    : Refill.intervally(limit.capacity(), limit.period())));
+        }
+        return new RateLimitPlan(name, builder.build(), List.copyOf(limits));
+    }
+
+    /**
+     * A named plan with its prebuilt Bucket4j configuration.
+     * The limits are the bandwidths of that configuration, for the Redis admission script.
+     */
+    public record RateLimitPlan(String name, BucketConfiguration configuration, List<Limit> limits) {}
+
+    /**
+     * One bandwidth: capacity tokens per period, refilled gradually (greedy) or all at once
+     * at the end of each period (intervally).
+     */
+    public record Limit(long capacity, Duration period, boolean greedy) {}
+}
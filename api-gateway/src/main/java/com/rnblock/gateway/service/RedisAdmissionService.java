@@ -0,0 +1,275 @@
+package com.rnblock.gateway.service;
+
+import com.rnblock.gateway.exception.InsufficientCreditsException;
+import com.rnblock.gateway.exception.RateLimitExceededException;
+import com.rnblock.gateway.model.Wallet;
+import com.rnblock.gateway.repository.WalletRepository;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Single round-trip admission for production keys: one Lua script checks the
+ * token buckets of every limit of the key's plan (the bandwidths of its Bucket4j
+ * configuration) and consumes a credit from a Redis mirror of the org wallet.
+ *
+ * The mirror only ever holds credits reserved from Postgres with a conditional
+ * UPDATE (as in {@link CreditLedger}), so an org cannot overspend. Consumed credits
+ * are reconciled to totalUsed asynchronously. The mirror is shared by all instances:
+ * each admission refreshes a last-seen key of the org, and the mirror is only given
+ * back to the wallet once that key has expired, i.e. when the org is idle on every
+ * instance. Credits in the mirror are lost if Redis evicts or loses the key.
+ *
+ * All the keys of an org share the {orgId} hash tag, so the scripts run on Redis Cluster.
+ */
+@Service
+@Slf4j
+public class RedisAdmissionService {
+
+    private static final String BUCKET_PREFIX = "admission:bucket:";
+    private static final String CREDITS_PREFIX = "admission:credits:";
+    private static final String USED_PREFIX = "admission:used:";
+    private static final String SEEN_PREFIX = "admission:seen:";
+
+    private static final long ADMITTED = 1;
+    private static final long RATE_LIMITED = 0;
+
+    private final StatefulRedisConnection<String, byte[]> redisConnection;
+    private final WalletRepository walletRepository;
+
+    @Value("${api.admission.mode:standard}")
+    private String mode;
+
+    @Value("${api.admission.redis.block-size:100}")
+    private int blockSize;
+
+    @Value("${api.admission.redis.idle-release:PT10M}")
+    private Duration idleRelease;
+
+    @Value("${api.admission.redis.bucket-ttl:PT5M}")
+    private Duration bucketTtl;
+
+    private final ConcurrentMap<String, OrgState> orgs = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, byte[][]> planArgs = new ConcurrentHashMap<>();
+
+    private RedisScript script;
+    private RedisScript releaseScript;
+
+    public RedisAdmissionService(StatefulRedisConnection<String, byte[]> redisConnection,
+                                 WalletRepository walletRepository) {
+        this.redisConnection = redisConnection;
+        this.walletRepository = walletRepository;
+    }
+
+    @PostConstruct
+    public void loadScript() {
+        if (!isEnabled()) {
+            return;
+        }
+        script = RedisScript.load(redisConnection, "scripts/admission.lua");
+        releaseScript = RedisScript.load(redisConnection, "scripts/admission-release.lua");
+        log.info("Redis admission enabled (script {}, credit block size {})", script.sha(), blockSize);
+    }
+
+    public boolean isEnabled() {
+        return "redis".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * Admits one request: consumes a token of every limit of the plan and one credit of the org.
+     *
+     * @return estimated remaining credits (wallet balance + credits mirrored in Redis)
+     * @throws RateLimitExceededException if one of the token buckets is empty
+     * @throws InsufficientCreditsException if the wallet cannot cover a single credit
+     */
+    public int admit(KeyHash keyHash, String orgId, RateLimitPlans.RateLimitPlan plan) {
+        OrgState org = orgs.computeIfAbsent(orgId, id -> new OrgState());
+        org.lastSeenNanos = System.nanoTime();
+
+        // The plan name is part of the bucket key so that a plan change starts new buckets
+        String[] keys = {BUCKET_PREFIX + tag(orgId) + ":" + plan.name() + ":" + keyHash,
+                creditsKey(orgId), usedKey(orgId), seenKey(orgId)};
+        byte[][] args = planArgs.computeIfAbsent(plan.name(), name -> scriptArgs(plan));
+
+        while (true) {
+            List<Object> result = script.evalMulti(keys, args);
+            long status = (Long) result.get(0);
+            long value = (Long) result.get(1);
+
+            if (status == ADMITTED) {
+                return (int) Math.min(Integer.MAX_VALUE, org.walletBalance + value);
+            }
+            if (status == RATE_LIMITED) {
+                log.warn("Rate limit exceeded for key: {}, retry in {} ms", keyHash, value);
+                throw new RateLimitExceededException("Rate limit exceeded");
+            }
+            if (!reserve(orgId, org)) {
+                log.warn("Insufficient credits for org: {}", orgId);
+                throw new InsufficientCreditsException("Insufficient credits");
+            }
+        }
+    }
+
+    /**
+     * Arguments of the admission script for this plan: expiration of the buckets, idle
+     * delay of the org, then capacity, period and refill mode of each limit.
+     */
+    private byte[][] scriptArgs(RateLimitPlans.RateLimitPlan plan) {
+        List<RateLimitPlans.Limit> limits = plan.limits();
+        byte[][] args = new byte[2 + 3 * limits.size()][];
+        // A bucket that expires before it would be full again would hand out tokens early
+        Duration ttl = bucketTtl;
+        for (int i = 0; i < limits.size(); i++) {
+            RateLimitPlans.Limit limit = limits.get(i);
+            args[2 + 3 * i] = RedisScript.arg(limit.capacity());
+            args[3 + 3 * i] = RedisScript.arg(limit.period().toMillis());
+            args[4 + 3 * i] = RedisScript.arg(limit.greedy() ? 1 : 0);
+            if (limit.period().compareTo(ttl) > 0) {
+                ttl = limit.period();
+            }
+        }
+        args[0] = RedisScript.arg(ttl.toMillis());
+        args[1] = RedisScript.arg(idleRelease.toMillis());
+        return args;
+    }
+
+    /**
+     * Moves a block of credits from the wallet to the Redis mirror, unless another request
+     * refilled it meanwhile. Returns false if the wallet cannot cover a single credit.
+     */
+    private boolean reserve(String orgId, OrgState org) {
+        org.lock.lock();
+        try {
+            RedisCommands<String, byte[]> commands = redisConnection.sync();
+            // The requests that queued on the lock behind the one that reserved retry the script instead
+            if (toInt(commands.get(creditsKey(orgId))) > 0) {
+                return true;
+            }
+
+            int granted = 0;
+            if (blockSize > 1 && walletRepository.reserveCredits(orgId, blockSize) == 1) {
+                granted = blockSize;
+            } else if (walletRepository.reserveCredits(orgId, 1) == 1) {
+                granted = 1;
+            }
+            if (granted == 0) {
+                return false;
+            }
+
+            try {
+                commands.incrby(creditsKey(orgId), granted);
+            } catch (RuntimeException e) {
+                // Debited from the wallet but not mirrored: give the block back
+                try {
+                    walletRepository.settleReservation(orgId, 0, granted);
+                } catch (RuntimeException settleFailure) {
+                    log.error("Failed to give back {} credits to org: {}", granted, orgId, settleFailure);
+                }
+                throw e;
+            }
+            org.walletBalance = walletRepository.findByOrgId(orgId).map(Wallet::getBalance).orElse(0);
+            log.debug("Mirrored {} credits in Redis for org: {}", granted, orgId);
+            return true;
+        } finally {
+            org.lock.unlock();
+        }
+    }
+
+    /**
+     * Reconciles consumed credits to Postgres and releases the mirrors of orgs idle on every instance.
+     * An org idle here but still active elsewhere is dropped from this instance only.
+     */
+    @Scheduled(fixedDelayString = "${api.admission.redis.reconcile-interval:PT5S}")
+    public void reconcile() {
+        if (!isEnabled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        orgs.forEach((orgId, org) -> {
+            boolean idle = now - org.lastSeenNanos > idleRelease.toNanos();
+            reconcile(orgId, idle);
+            if (idle) {
+                orgs.remove(orgId, org);
+            }
+        });
+    }
+
+    /**
+     * Reconciles consumed credits on shutdown. Mirrors of orgs still active on another instance,
+     * or on this one until a moment ago, are left in Redis for the next admissions.
+     */
+    @PreDestroy
+    public void releaseAll() {
+        if (!isEnabled()) {
+            return;
+        }
+        orgs.keySet().forEach(orgId -> reconcile(orgId, true));
+    }
+
+    private void reconcile(String orgId, boolean release) {
+        RedisCommands<String, byte[]> commands = redisConnection.sync();
+        int used = 0;
+        int released = 0;
+        try {
+            // GETDEL is atomic: concurrent INCRs from other instances start a fresh counter
+            used = toInt(commands.getdel(usedKey(orgId)));
+            if (release) {
+                // Atomic with the admission script: the mirror is only taken if no instance saw the org lately
+                List<Object> result = releaseScript.evalMulti(new String[]{creditsKey(orgId), seenKey(orgId)});
+                released = ((Long) result.get(0)).intValue();
+            }
+            if (used > 0 || released > 0) {
+                walletRepository.settleReservation(orgId, used, released);
+                log.debug("Reconciled org: {}, used: {}, released: {}", orgId, used, released);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to reconcile credits for org: {}, used: {}, released: {}", orgId, used, released, e);
+            // Put the counts back so the next run retries them
+            if (used > 0) {
+                commands.incrby(usedKey(orgId), used);
+            }
+            if (released > 0) {
+                commands.incrby(creditsKey(orgId), released);
+            }
+        }
+    }
+
+    private static String creditsKey(String orgId) {
+        return CREDITS_PREFIX + tag(orgId);
+    }
+
+    private static String usedKey(String orgId) {
+        return USED_PREFIX + tag(orgId);
+    }
+
+    private static String seenKey(String orgId) {
+        return SEEN_PREFIX + tag(orgId);
+    }
+
+    // Same hash slot for all the keys of an org, and thus for the keys of each script call
+    private static String tag(String orgId) {
+        return "{" + orgId + "}";
+    }
+
+    private static int toInt(byte[] value) {
+        return value == null ? 0 : Integer.parseInt(new String(value, StandardCharsets.US_ASCII));
+    }
+
+    private static final class OrgState {
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile int walletBalance;
+        private volatile long lastSeenNanos = System.nanoTime();
+    }
+}
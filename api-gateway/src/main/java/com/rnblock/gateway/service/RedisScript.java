@@ -0,0 +1,68 @@
+package com.rnblock.gateway.service;
+
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lua script loaded from the classpath and run with EVALSHA.
+ * The script is loaded again if Redis lost its script cache (restart or failover).
+ *
+ * EVALSHA goes through the asynchronous API and waits for the reply like the synchronous API
+ * does (connection timeout), without its JDK proxy: no reflective call per admission.
+ */
+final class RedisScript {
+
+    private final StatefulRedisConnection<String, byte[]> connection;
+    private final String source;
+    private volatile String sha;
+
+    private RedisScript(StatefulRedisConnection<String, byte[]> connection, String source) {
+        this.connection = connection;
+        this.source = source;
+        this.sha = connection.sync().scriptLoad(source);
+    }
+
+    static RedisScript load(StatefulRedisConnection<String, byte[]> connection, String path) {
+        try {
+            String source = StreamUtils.copyToString(
+                    new ClassPathResource(path).getInputStream(), StandardCharsets.UTF_8);
+            return new RedisScript(connection, source);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read Redis script " + path, e);
+        }
+    }
+
+    String sha() {
+        return sha;
+    }
+
+    List<Object> evalMulti(String[] keys, byte[]... args) {
+        RedisAsyncCommands<String, byte[]> commands = connection.async();
+        try {
+            return await(commands.evalsha(sha, ScriptOutputType.MULTI, keys, args));
+        } catch (RedisNoScriptException e) {
+            sha = await(commands.scriptLoad(source));
+            return await(commands.evalsha(sha, ScriptOutputType.MULTI, keys, args));
+        }
+    }
+
+    private <T> T await(RedisFuture<T> future) {
+        return LettuceFutures.awaitOrCancel(future, connection.getTimeout().toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    static byte[] arg(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,126 @@
+package com.rnblock.gateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.redis.lettuce.cas.LettuceBasedProxyManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Two-tier rate limiter: a local lock-free token counter per key in front of
+ * the distributed Bucket4j bucket in Redis.
+ *
+ * Tokens are borrowed from the Redis bucket in batches ({@code tryConsumeAsMuchAsPossible}),
+ * so a key only costs one Redis CAS per batch. Borrowed tokens are real bucket tokens,
+ * so the global limit is never exceeded; unused ones are dropped after {@code max-hold}.
+ * Fairness between instances is off by at most {@code batch-size} tokens per instance
+ * and per key. Bucket proxies are built once per key and cached, with the configuration
+ * of the key's plan; the plan name is part of the Redis bucket key so that a plan change
+ * starts a new bucket.
+ */
+@Service
+public class TieredRateLimiter {
+
+    private final LettuceBasedProxyManager<String> rateLimitProxyManager;
+    private final Cache<KeyHash, KeyLimiter> limiters;
+    private final int batchSize;
+    private final long maxHoldNanos;
+
+    public TieredRateLimiter(
+            LettuceBasedProxyManager<String> rateLimitProxyManager,
+            @Value("${api.rate-limit.local.batch-size:5}") int batchSize,
+            @Value("${api.rate-limit.local.max-hold:PT1S}") Duration maxHold,
+            @Value("${api.rate-limit.local.maximum-keys:10000}") long maximumKeys) {
+        this.rateLimitProxyManager = rateLimitProxyManager;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxHoldNanos = maxHold.toNanos();
+        this.limiters = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(Duration.ofMinutes(5))
+                .build();
+    }
+
+    /**
+     * Consumes one token for this key.
+     *
+     * @return false if one of the plan limits is exceeded
+     */
+    public boolean tryAcquire(KeyHash keyHash, RateLimitPlans.RateLimitPlan plan) {
+        KeyLimiter limiter = limiters.getIfPresent(keyHash);
+        if (limiter == null || limiter.plan != plan) {
+            // Atomic, so that concurrent first requests share one limiter and its borrowed tokens.
+            // Building a proxy does not touch Redis: nothing blocks under the map lock
+            limiter = limiters.asMap().compute(keyHash, (key, current) ->
+                    current != null && current.plan == plan ? current : newLimiter(key, plan));
+        }
+        return limiter.tryAcquire();
+    }
+
+    private KeyLimiter newLimiter(KeyHash keyHash, RateLimitPlans.RateLimitPlan plan) {
+        return new KeyLimiter(plan, rateLimitProxyManager.builder()
+                .build("rate-limit:" + plan.name() + ":" + keyHash, plan::configuration));
+    }
+
+    /**
+     * Drops the cached bucket of a key, e.g. after its limits changed.
+     */
+    public void evict(KeyHash keyHash) {
+        limiters.invalidate(keyHash);
+    }
+
+    private final class KeyLimiter {
+        private final RateLimitPlans.RateLimitPlan plan;
+        private final BucketProxy bucket;
+        private final AtomicInteger borrowed = new AtomicInteger();
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile long borrowedAtNanos;
+
+        private KeyLimiter(RateLimitPlans.RateLimitPlan plan, BucketProxy bucket) {
+            this.plan = plan;
+            this.bucket = bucket;
+        }
+
+        private boolean tryAcquire() {
+            if (batchSize == 1) {
+                return bucket.tryConsume(1);
+            }
+            while (true) {
+                int tokens = borrowed.get();
+                if (tokens <= 0 || System.nanoTime() - borrowedAtNanos > maxHoldNanos) {
+                    return borrow();
+                }
+                if (borrowed.compareAndSet(tokens, tokens - 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private boolean borrow() {
+            lock.lock();
+            try {
+                // Another thread may have borrowed while we were waiting
+                int tokens = borrowed.get();
+                if (tokens > 0 && System.nanoTime() - borrowedAtNanos <= maxHoldNanos
+                        && borrowed.compareAndSet(tokens, tokens - 1)) {
+                    return true;
+                }
+
+                long granted = bucket.tryConsumeAsMuchAsPossible(batchSize);
+                if (granted == 0) {
+                    borrowed.set(0);
+                    return false;
+                }
+                borrowedAtNanos = System.nanoTime();
+                borrowed.set((int) granted - 1);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
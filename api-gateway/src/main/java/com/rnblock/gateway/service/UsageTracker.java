@@ -0,0 +1,115 @@
+package com.rnblock.gateway.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records the last use of API keys (lastUsedAt / lastUsedIp) off the request path.
+ *
+ * Requests only append an event to a bounded lock-free queue. The queue is drained
+ * periodically, events are coalesced per key (latest wins) and written with one
+ * batched UPDATE. When the queue is full, events are dropped and counted
+ * (metric {@code gateway.usage.events.dropped}) instead of blocking the request.
+ */
+@Service
+@Slf4j
+public class UsageTracker {
+
+    private static final String UPDATE_LAST_USED =
+            "UPDATE api_keys SET \"lastUsedAt\" = ?, \"lastUsedIp\" = ? "
+                    + "WHERE id = ? AND (\"lastUsedAt\" IS NULL OR \"lastUsedAt\" < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConcurrentLinkedQueue<UsageEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final Counter dropped;
+    private final Counter written;
+    private final int capacity;
+
+    public UsageTracker(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                        @Value("${api.usage.queue-capacity:100000}") int capacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.capacity = capacity;
+        this.dropped = Counter.builder("gateway.usage.events.dropped")
+                .description("API key usage events dropped because the queue was full")
+                .register(meterRegistry);
+        this.written = Counter.builder("gateway.usage.keys.written")
+                .description("API keys whose lastUsedAt was written")
+                .register(meterRegistry);
+        Gauge.builder("gateway.usage.queue.size", size, AtomicInteger::get)
+                .description("API key usage events waiting to be written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a usage event, never blocks.
+     */
+    public void record(String keyId, String ip) {
+        if (keyId == null) {
+            return;
+        }
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        queue.offer(new UsageEvent(keyId, ip, System.currentTimeMillis()));
+    }
+
+    /**
+     * Writes the latest usage of every key seen since the last run.
+     */
+    @Scheduled(fixedDelayString = "${api.usage.flush-interval:PT10S}")
+    public void flush() {
+        Map<String, UsageEvent> latest = new HashMap<>();
+        UsageEvent event;
+        while ((event = queue.poll()) != null) {
+            size.decrementAndGet();
+            latest.merge(event.keyId(), event, (a, b) -> a.timestamp() >= b.timestamp() ? a : b);
+        }
+        if (latest.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<>(latest.size());
+        for (UsageEvent usage : latest.values()) {
+            // Same convention as the other LocalDateTime columns (JVM time zone)
+            Timestamp usedAt = Timestamp.valueOf(LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(usage.timestamp()), ZoneId.systemDefault()));
+            batch.add(new Object[]{usedAt, usage.ip(), usage.keyId(), usedAt});
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_LAST_USED, batch);
+            written.increment(batch.size());
+            log.debug("Recorded last use of {} API keys", batch.size());
+        } catch (RuntimeException e) {
+            // Usage tracking is best effort, the next events of these keys will be written
+            log.error("Failed to record last use of {} API keys", batch.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private record UsageEvent(String keyId, String ip, long timestamp) {}
+}
@@ -0,0 +1,11 @@
+-- Gives the mirrored credits of an org back, only if the org is idle on every gateway instance.
+--
+-- KEYS[1] credits reserved from the org wallet and mirrored in Redis
+-- KEYS[2] last-seen key of the org, refreshed by admission.lua and expiring after the idle delay
+--
+-- Returns {released}: the credits taken from the mirror, 0 if an instance saw the org lately.
+
+if redis.call('EXISTS', KEYS[2]) == 1 then
+    return {0}
+end
+return {tonumber(redis.call('GETDEL', KEYS[1]) or '0')}
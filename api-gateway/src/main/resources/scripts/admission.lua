@@ -0,0 +1,93 @@
+-- Combined admission check: token buckets of the plan + mirrored credit balance, in one round trip.
+--
+-- KEYS[1] token buckets hash (tokens1, ts1, tokens2, ts2, ...: one pair per limit)
+-- KEYS[2] credits reserved from the org wallet and mirrored in Redis
+-- KEYS[3] credits consumed since the last reconciliation with Postgres
+-- KEYS[4] last-seen key of the org, which keeps the mirror from being released while it exists
+-- All keys carry the {orgId} hash tag (same slot on Redis Cluster).
+-- ARGV[1] buckets expiration in milliseconds
+-- ARGV[2] idle delay of the org in milliseconds (expiration of KEYS[4])
+-- ARGV[3..] one triple per limit of the plan, as in its Bucket4j configuration:
+--   capacity, refill period in milliseconds, refill mode (1 greedy: capacity tokens spread over
+--   the period, 0 intervally: capacity tokens added at the end of each period)
+--
+-- Returns {status, remaining}:
+--   status  1 admitted, remaining = mirrored credits left
+--   status  0 rate limited, remaining = milliseconds until every limit has a token
+--   status -1 no mirrored credits (nothing consumed), caller must reserve and retry
+
+local ttl = tonumber(ARGV[1])
+local idle = tonumber(ARGV[2])
+local count = (#ARGV - 2) / 3
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local fields = {}
+for i = 1, count do
+    fields[2 * i - 1] = 'tokens' .. i
+    fields[2 * i] = 'ts' .. i
+end
+local bucket = redis.call('HMGET', KEYS[1], unpack(fields))
+
+local state = {}
+local wait = 0
+for i = 1, count do
+    local capacity = tonumber(ARGV[3 * i])
+    local period = tonumber(ARGV[3 * i + 1])
+    local greedy = ARGV[3 * i + 2] == '1'
+    local tokens = tonumber(bucket[2 * i - 1])
+    local ts = tonumber(bucket[2 * i])
+    if tokens == nil or ts == nil then
+        tokens = capacity
+        ts = now
+    end
+
+    if greedy then
+        tokens = math.min(capacity, tokens + (now - ts) * capacity / period)
+        ts = now
+        if tokens < 1 then
+            wait = math.max(wait, math.ceil((1 - tokens) * period / capacity))
+        end
+    else
+        local intervals = math.floor((now - ts) / period)
+        if intervals > 0 then
+            tokens = math.min(capacity, tokens + intervals * capacity)
+            ts = ts + intervals * period
+        end
+        if tokens < 1 then
+            wait = math.max(wait, period - (now - ts))
+        end
+    end
+    state[2 * i - 1] = tokens
+    state[2 * i] = ts
+end
+
+local function save(consumed)
+    local values = {}
+    for i = 1, count do
+        -- Greedy refills leave fractions of tokens: keep them exact in the hash
+        values[4 * i - 3] = 'tokens' .. i
+        values[4 * i - 2] = string.format('%.17g', state[2 * i - 1] - consumed)
+        values[4 * i - 1] = 'ts' .. i
+        values[4 * i] = state[2 * i]
+    end
+    redis.call('HSET', KEYS[1], unpack(values))
+    redis.call('PEXPIRE', KEYS[1], ttl)
+end
+
+if wait > 0 then
+    save(0)
+    return {0, wait}
+end
+
+local credits = tonumber(redis.call('GET', KEYS[2]) or '0')
+if credits < 1 then
+    return {-1, 0}
+end
+
+save(1)
+local remaining = redis.call('DECR', KEYS[2])
+redis.call('INCR', KEYS[3])
+redis.call('SET', KEYS[4], 1, 'PX', idle)
+return {1, remaining}
@@ -0,0 +1,16 @@
+-- Gives back one request counted by quota.lua, for a request rejected after the quota check.
+--
+-- KEYS[1] usage counter of the day the request was counted in
+-- KEYS[2] usage counter of the month the request was counted in
+--
+-- Returns {dailyUsed, monthlyUsed}. A counter that expired meanwhile is left absent.
+
+local used = {}
+for i = 1, 2 do
+    local count = tonumber(redis.call('GET', KEYS[i]) or '0')
+    if count > 0 then
+        count = redis.call('DECR', KEYS[i])
+    end
+    used[i] = count
+end
+return used
@@ -0,0 +1,35 @@
+-- Calendar quota check and usage count for one API key, in one round trip.
+--
+-- KEYS[1] usage counter of the current day
+-- KEYS[2] usage counter of the current month
+-- ARGV[1] daily quota (-1 = unlimited)
+-- ARGV[2] monthly quota (-1 = unlimited)
+-- ARGV[3] daily counter expiration in seconds
+-- ARGV[4] monthly counter expiration in seconds
+--
+-- Returns {status, dailyUsed, monthlyUsed}:
+--   status  1 counted
+--   status  0 daily quota reached (nothing counted)
+--   status -1 monthly quota reached (nothing counted)
+
+local daily = tonumber(redis.call('GET', KEYS[1]) or '0')
+local monthly = tonumber(redis.call('GET', KEYS[2]) or '0')
+local dailyQuota = tonumber(ARGV[1])
+local monthlyQuota = tonumber(ARGV[2])
+
+if dailyQuota >= 0 and daily >= dailyQuota then
+    return {0, daily, monthly}
+end
+if monthlyQuota >= 0 and monthly >= monthlyQuota then
+    return {-1, daily, monthly}
+end
+
+daily = redis.call('INCR', KEYS[1])
+if daily == 1 then
+    redis.call('EXPIRE', KEYS[1], ARGV[3])
+end
+monthly = redis.call('INCR', KEYS[2])
+if monthly == 1 then
+    redis.call('EXPIRE', KEYS[2], ARGV[4])
+end
+return {1, daily, monthly}
@@ -27,6 +27,7 @@ import { z } from "zod";
 import { CreateApiKeySchema } from "@/lib/validations/api-keys";
 import type { ActionResponse } from "@/lib/types/actions";
 import { getCurrentUser } from "@/lib/utils/auth";
+import { publishApiKeyEvent } from "@/lib/api-key-events";
 
 /**
  * Create a new API key with hash-based storage
@@ -97,6 +98,9 @@ export async function createApiKeyAction(
       })
       .returning({ id: apiKeys.id });
 
+    // Visible par les gateways sans attendre la synchro de leur filtre de Bloom
+    await publishApiKeyEvent("created", keyHash);
+
     revalidatePath("/keys");
 
     // 4. Retourner la clé en clair (DERNIÈRE FOIS qu'elle sera visible)
@@ -263,6 +267,9 @@ export async function revokeApiKeyAction(
       })
       .where(eq(apiKeys.id, keyId));
 
+    // Retirée du cache des gateways immédiatement, pas au bout de son TTL
+    await publishApiKeyEvent("revoked", key.keyHash);
+
     revalidatePath("/keys");
 
     return {
@@ -316,6 +323,7 @@ export async function deleteApiKeyAction(
 
     // Supprimer (cascade will delete usage logs)
     await db.delete(apiKeys).where(eq(apiKeys.id, keyId));
+    await publishApiKeyEvent("deleted", key.keyHash);
 
     revalidatePath("/keys");
 
@@ -567,6 +575,7 @@ export async function updateApiKeyAction(
         updatedAt: new Date(),
       })
       .where(eq(apiKeys.id, keyId));
+    await publishApiKeyEvent("updated", key.keyHash);
 
     revalidatePath("/keys");
 
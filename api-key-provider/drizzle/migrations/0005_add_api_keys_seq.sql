@@ -0,0 +1,6 @@
+-- Migration: Add insertion sequence to api_keys
+-- Description: Monotonic identity column used by the gateway to sync its known-keys Bloom filter (clock-independent watermark). Existing rows are numbered when the column is added.
+-- Date: 2026-10-17
+
+ALTER TABLE "api_keys" ADD COLUMN IF NOT EXISTS "seq" bigint GENERATED ALWAYS AS IDENTITY;
+CREATE INDEX IF NOT EXISTS "idx_apikeys_seq" ON "api_keys" USING btree ("seq");
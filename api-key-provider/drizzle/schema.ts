@@ -6,6 +6,7 @@ import {
   jsonb,
   index,
   integer,
+  bigint,
 } from "drizzle-orm/pg-core";
 import { relations } from "drizzle-orm";
 
@@ -222,10 +223,14 @@ export const apiKeys = pgTable(
 
     createdAt: timestamp("createdAt").notNull().defaultNow(),
     updatedAt: timestamp("updatedAt").notNull().defaultNow(),
+
+    // Insertion order, read by the gateway to sync its Bloom filter
+    seq: bigint("seq", { mode: "number" }).generatedAlwaysAsIdentity(),
   },
   (table) => ({
     keyHashIdx: index("idx_apikeys_keyHash").on(table.keyHash), // CRITICAL
     orgIdx: index("idx_apikeys_org").on(table.orgId),
+    seqIdx: index("idx_apikeys_seq").on(table.seq),
   }),
 );
 
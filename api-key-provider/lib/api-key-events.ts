@@ -0,0 +1,96 @@
+import net from "node:net";
+import tls from "node:tls";
+
+/**
+ * Événements de cycle de vie des clés API, publiés sur le Redis de la gateway
+ * (canal `api-keys:events`, lu par ApiKeyEventListener) : `<event>:<keyHash>`.
+ *
+ * - `created` : la clé passe le filtre de Bloom de chaque gateway sans attendre la synchro
+ * - `revoked`, `updated`, `deleted` : la clé est retirée du cache de chaque gateway
+ *
+ * IMPORTANT : Nécessite la variable d'environnement
+ * GATEWAY_REDIS_URL=redis://[:password@]host:port (rediss:// pour TLS)
+ * Ce n'est pas le Redis Upstash (REST) du rate limiting.
+ */
+
+export type ApiKeyEvent = "created" | "updated" | "revoked" | "deleted";
+
+const CHANNEL = process.env.GATEWAY_API_KEY_EVENTS_CHANNEL ?? "api-keys:events";
+const TIMEOUT_MS = 2000;
+
+/**
+ * Publie un événement après la mise à jour en base. Un échec est journalisé sans faire
+ * échouer l'action : la gateway rattrape par la synchro `seq` (création) ou le TTL du cache.
+ */
+export async function publishApiKeyEvent(
+  event: ApiKeyEvent,
+  keyHash: string,
+): Promise<void> {
+  const url = process.env.GATEWAY_REDIS_URL;
+  if (!url) {
+    // Dev mode sans Redis gateway : les gateways rattrapent par synchro ou TTL
+    console.warn(`GATEWAY_REDIS_URL absent, événement ${event} non publié`);
+    return;
+  }
+  try {
+    await publish(new URL(url), CHANNEL, `${event}:${keyHash}`);
+  } catch (error) {
+    console.error(`Error publishing API key event ${event}:`, error);
+  }
+}
+
+// PUBLISH en RESP brut (précédé d'AUTH si besoin) : une commande, pas de client Redis à maintenir
+function publish(url: URL, channel: string, message: string): Promise<void> {
+  const commands: string[][] = [];
+  if (url.password) {
+    const password = decodeURIComponent(url.password);
+    commands.push(
+      url.username
+        ? ["AUTH", decodeURIComponent(url.username), password]
+        : ["AUTH", password],
+    );
+  }
+  commands.push(["PUBLISH", channel, message]);
+
+  return new Promise((resolve, reject) => {
+    const port = Number(url.port || 6379);
+    const socket =
+      url.protocol === "rediss:"
+        ? tls.connect({ host: url.hostname, port, servername: url.hostname })
+        : net.connect({ host: url.hostname, port });
+    let buffer = "";
+    let replies = 0;
+
+    socket.setTimeout(TIMEOUT_MS, () =>
+      socket.destroy(new Error("Timeout Redis gateway")),
+    );
+    socket.on("error", reject);
+    socket.on("data", (chunk) => {
+      buffer += chunk.toString("utf8");
+      let end;
+      // Réponses d'une ligne : +OK (AUTH), :<abonnés> (PUBLISH) ou -ERR
+      while ((end = buffer.indexOf("\r\n")) >= 0) {
+        const line = buffer.slice(0, end);
+        buffer = buffer.slice(end + 2);
+        if (line.startsWith("-")) {
+          socket.destroy();
+          reject(new Error(line.slice(1)));
+          return;
+        }
+        if (++replies === commands.length) {
+          socket.end();
+          resolve();
+          return;
+        }
+      }
+    });
+    socket.write(commands.map(encode).join(""));
+  });
+}
+
+function encode(args: string[]): string {
+  return (
+    `*${args.length}\r\n` +
+    args.map((arg) => `$${Buffer.byteLength(arg)}\r\n${arg}\r\n`).join("")
+  );
+}
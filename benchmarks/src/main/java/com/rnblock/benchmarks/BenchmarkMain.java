@@ -0,0 +1,29 @@
+package com.rnblock.benchmarks;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of the benchmarks jar: JMH with results written as JSON by default.
+ *
+ * Without {@code -rf}, results go to {@code jmh-result.json} (or the file given by {@code -rff}),
+ * to be compared between two commits with {@link CompareResults}. All other options are passed
+ * to JMH as they are.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<>(Arrays.asList(args));
+        if (!options.contains("-rf") && !options.contains("-h") && !options.contains("-l")) {
+            options.add("-rf");
+            options.add("json");
+        }
+        Main.main(options.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,115 @@
+package com.rnblock.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files (baseline, then current) benchmark by benchmark.
+ *
+ * Usage: {@code java -cp target/benchmarks.jar com.rnblock.benchmarks.CompareResults base.json head.json [threshold %]}
+ *
+ * Prints the score of each benchmark (and {@code gc.alloc.rate.norm} when run with {@code -prof gc})
+ * with its relative change. Exits with status 1 when a score is worse than the baseline by more
+ * than the threshold (5 % by default) and by more than the error margins of both runs,
+ * so the comparison can gate a CI job.
+ */
+public final class CompareResults {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    private CompareResults() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareResults <baseline.json> <current.json> [threshold %]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.05;
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = index(mapper.readTree(new File(args[0])));
+        Map<String, JsonNode> current = index(mapper.readTree(new File(args[1])));
+
+        int regressions = 0;
+        System.out.printf("%-70s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            JsonNode after = entry.getValue();
+            if (before == null) {
+                System.out.printf("%-70s %14s %14s %9s%n", entry.getKey(), "-",
+                        format(after.path("primaryMetric")), "new");
+                continue;
+            }
+            boolean lowerIsBetter = !"thrpt".equals(after.path("mode").asText());
+            if (compare(entry.getKey(), before.path("primaryMetric"), after.path("primaryMetric"),
+                    lowerIsBetter, threshold)) {
+                regressions++;
+            }
+            JsonNode allocationBefore = before.path("secondaryMetrics").path(ALLOCATION);
+            JsonNode allocationAfter = after.path("secondaryMetrics").path(ALLOCATION);
+            if (!allocationBefore.isMissingNode() && !allocationAfter.isMissingNode()
+                    && compare("  " + ALLOCATION, allocationBefore, allocationAfter, true, threshold)) {
+                regressions++;
+            }
+        }
+        for (String removed : baseline.keySet()) {
+            if (!current.containsKey(removed)) {
+                System.out.printf("%-70s %14s %14s %9s%n", removed, format(baseline.get(removed).path("primaryMetric")),
+                        "-", "removed");
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d regression(s) above %.1f %%%n", regressions, threshold * 100);
+            System.exit(1);
+        }
+    }
+
+    // Benchmark name with its parameters, e.g. ApiKeyValidationBenchmark.validate:batchSize=5
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> index = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(shortName(result.path("benchmark").asText()));
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(key.indexOf(":") < 0 ? ':' : ',').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            index.put(key.toString(), result);
+        }
+        return index;
+    }
+
+    private static boolean compare(String name, JsonNode before, JsonNode after, boolean lowerIsBetter, double threshold) {
+        double baseline = before.path("score").asDouble();
+        double current = after.path("score").asDouble();
+        double change = baseline == 0 ? 0 : (current - baseline) / baseline;
+        double worse = lowerIsBetter ? current - baseline : baseline - current;
+        double margin = error(before) + error(after);
+        boolean regression = worse > Math.abs(baseline) * threshold && worse > margin;
+        System.out.printf("%-70s %14s %14s %+8.1f%%%s%n", name, format(before), format(after), change * 100,
+                regression ? "  REGRESSION" : "");
+        return regression;
+    }
+
+    private static double error(JsonNode metric) {
+        double error = metric.path("scoreError").asDouble();
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    private static String format(JsonNode metric) {
+        return String.format("%.2f %s", metric.path("score").asDouble(), metric.path("scoreUnit").asText());
+    }
+
+    private static String shortName(String benchmark) {
+        int method = benchmark.lastIndexOf('.');
+        int type = benchmark.lastIndexOf('.', method - 1);
+        return benchmark.substring(type + 1);
+    }
+}
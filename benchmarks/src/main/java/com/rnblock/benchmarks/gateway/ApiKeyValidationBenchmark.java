@@ -0,0 +1,209 @@
+package com.rnblock.benchmarks.gateway;
+
+import com.rnblock.gateway.config.RateLimitProperties;
+import com.rnblock.gateway.model.ApiKey;
+import com.rnblock.gateway.model.Wallet;
+import com.rnblock.gateway.repository.ApiKeyRepository;
+import com.rnblock.gateway.repository.TestWalletRepository;
+import com.rnblock.gateway.repository.WalletRepository;
+import com.rnblock.gateway.service.AdmissionMetrics;
+import com.rnblock.gateway.service.ApiKeyHasher;
+import com.rnblock.gateway.service.ApiKeyResolver;
+import com.rnblock.gateway.service.ApiKeyValidationService;
+import com.rnblock.gateway.service.CreditLedger;
+import com.rnblock.gateway.service.KeyHash;
+import com.rnblock.gateway.service.QuotaService;
+import com.rnblock.gateway.service.RateLimitPlans;
+import com.rnblock.gateway.service.RedisAdmissionService;
+import com.rnblock.gateway.service.TieredRateLimiter;
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.redis.lettuce.cas.LettuceBasedProxyManager;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.server.mvc.config.GatewayMvcProperties;
+import org.springframework.transaction.PlatformTransactionManager;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Key resolution and the full admission path of {@link ApiKeyValidationService}.
+ *
+ * Repositories are in-memory stubs (the wallet UPDATE / SELECT cost nothing here, Postgres is
+ * not part of the measurement) and Redis is a real redis-server started on a free port for the
+ * Bucket4j buckets. {@code batchSize} is the local tier of {@link TieredRateLimiter}: 1 means one
+ * Redis CAS per request. Quotas, the credit ledger and the Redis admission mode are disabled,
+ * as with the default configuration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class ApiKeyValidationBenchmark {
+
+    private static final String PEPPER = "benchmark-pepper-0123456789abcdef";
+    private static final int KEYS = 1024;
+    private static final String ORG_ID = "org-benchmark";
+
+    @Param({"1", "5"})
+    public int batchSize;
+
+    private RedisServer redisServer;
+    private RedisClient redisClient;
+    private StatefulRedisConnection<String, byte[]> connection;
+
+    private ApiKeyHasher hasher;
+    private ApiKeyResolver resolver;
+    private ApiKeyValidationService validationService;
+    private AdmissionMetrics.Route route;
+
+    private String[] plainKeys;
+    private KeyHash[] keyHashes;
+    private KeyHash[] unknownHashes;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int next() {
+            return next++ & (KEYS - 1);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        int port = freePort();
+        redisServer = new RedisServer(port);
+        redisServer.start();
+        redisClient = RedisClient.create(RedisURI.create("localhost", port));
+        connection = redisClient.connect(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE));
+
+        hasher = new ApiKeyHasher(PEPPER);
+        plainKeys = new String[KEYS];
+        keyHashes = new KeyHash[KEYS];
+        unknownHashes = new KeyHash[KEYS];
+        Map<String, ApiKey> apiKeys = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            plainKeys[i] = "sk_live_benchmark_" + i + "_Q2hhbmdlTWVJbkJlbmNobWFya3NPbmx5";
+            keyHashes[i] = hasher.hash(plainKeys[i]);
+            unknownHashes[i] = hasher.hash("sk_live_unknown_" + i);
+            apiKeys.put(keyHashes[i].toHex(), apiKey(i, keyHashes[i]));
+        }
+
+        ApiKeyRepository apiKeyRepository = Stubs.stub(ApiKeyRepository.class, Map.of(
+                "findByKeyHash", args -> Optional.ofNullable(apiKeys.get((String) args[0])),
+                "findAllKeyHashes", args -> new ArrayList<>(apiKeys.keySet()),
+                "findLatestSeq", args -> (long) KEYS,
+                "findBySeqGreaterThanOrderBySeq", args -> List.of()));
+        Wallet wallet = new Wallet();
+        wallet.setOrgId(ORG_ID);
+        wallet.setBalance(1_000_000);
+        WalletRepository walletRepository = Stubs.stub(WalletRepository.class, Map.of(
+                "decrementBalanceIfPositive", args -> 1,
+                "findByOrgId", args -> Optional.of(wallet)));
+        TestWalletRepository testWalletRepository = Stubs.stub(TestWalletRepository.class, Map.of());
+
+        resolver = new ApiKeyResolver(apiKeyRepository, 10_000, Duration.ofHours(1),
+                10_000, Duration.ofMinutes(5), true, 100_000, 0.01);
+        resolver.rebuildBloomFilter();
+
+        LettuceBasedProxyManager<String> proxyManager = LettuceBasedProxyManager.builderFor(connection)
+                .withExpirationStrategy(ExpirationAfterWriteStrategy.basedOnTimeForRefillingBucketUpToMax(
+                        Duration.ofMinutes(5)))
+                .build();
+        // One plan large enough never to reject: the benchmark measures the cost of the check
+        RateLimitProperties.Plan plan = new RateLimitProperties.Plan();
+        plan.setBurst(1_000_000_000L);
+        RateLimitProperties rateLimitProperties = new RateLimitProperties();
+        rateLimitProperties.getPlans().put("production", plan);
+
+        AdmissionMetrics admissionMetrics = new AdmissionMetrics(new SimpleMeterRegistry(), new GatewayMvcProperties());
+        route = admissionMetrics.route("/api/v1/template/frais-kilometriques");
+        validationService = new ApiKeyValidationService(
+                walletRepository,
+                testWalletRepository,
+                resolver,
+                hasher,
+                new TieredRateLimiter(proxyManager, batchSize, Duration.ofSeconds(1), 10_000),
+                new RateLimitPlans(rateLimitProperties),
+                new QuotaService(connection, null),
+                new CreditLedger(walletRepository, Stubs.stub(PlatformTransactionManager.class, Map.of())),
+                new RedisAdmissionService(connection, walletRepository),
+                admissionMetrics);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        connection.close();
+        redisClient.shutdown();
+        redisServer.stop();
+    }
+
+    @Benchmark
+    public KeyHash hash(Cursor cursor) {
+        return hasher.hash(plainKeys[cursor.next()]);
+    }
+
+    @Benchmark
+    public ApiKey resolveCached(Cursor cursor) {
+        return resolver.resolve(keyHashes[cursor.next()]);
+    }
+
+    @Benchmark
+    public ApiKey resolveUnknown(Cursor cursor) {
+        // Rejected by the Bloom filter, without any query
+        return resolver.resolve(unknownHashes[cursor.next()]);
+    }
+
+    @Benchmark
+    public ApiKeyValidationService.ApiKeyDetails validate(Cursor cursor) {
+        return validationService.validateApiKey(plainKeys[cursor.next()], route);
+    }
+
+    private static ApiKey apiKey(int index, KeyHash keyHash) {
+        ApiKey apiKey = new ApiKey();
+        apiKey.setId("key-" + index);
+        apiKey.setKeyHash(keyHash.toHex());
+        apiKey.setOrgId(ORG_ID);
+        apiKey.setEnvironment("production");
+        apiKey.setCreatedAt(LocalDateTime.now());
+        return apiKey;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.rnblock.benchmarks.template;
+
+import com.api.template.domain.TimeSheetDocument;
+import com.api.template.domain.dto.TimeSheetEntryDto;
+import com.api.template.domain.dto.TimeSheetRequestDto;
+import com.api.template.domain.dto.TimeSheetResponseDto;
+import com.api.template.service.DocumentCache;
+import com.api.template.service.impl.FrenchHolidayProvider;
+import com.api.template.service.impl.TimeSheetPdfWriter;
+import com.api.template.service.impl.TimeSheetServiceImpl;
+import com.api.template.service.impl.WorkCalendar;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.ModelAndView;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Document generation of api-template, stage by stage: month entries, Thymeleaf rendering
+ * of both templates, JSON serialization of the response and direct PDF layout.
+ *
+ * The services are built as in the application (templates from the classpath, parsed
+ * templates cached), without a Spring context. The document cache is disabled so that
+ * every call computes the document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class TimeSheetBenchmark {
+
+    private TimeSheetServiceImpl timeSheetService;
+    private TimeSheetPdfWriter pdfWriter;
+    private ObjectMapper objectMapper;
+    private TimeSheetRequestDto request;
+    private TimeSheetDocument document;
+    private TimeSheetResponseDto response;
+
+    @State(Scope.Benchmark)
+    public static class View {
+        @Param({"frais-kilometriques-template", "timesheet"})
+        public String template;
+    }
+
+    @Setup
+    public void setup() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+
+        FrenchHolidayProvider holidayProvider = new FrenchHolidayProvider(false);
+        DocumentCache documentCache = new DocumentCache(holidayProvider, false, DataSize.ofMegabytes(64), true);
+        pdfWriter = new TimeSheetPdfWriter();
+        timeSheetService = new TimeSheetServiceImpl(new GenericApplicationContext(), templateEngine,
+                documentCache, new WorkCalendar(holidayProvider), pdfWriter);
+        // Same defaults as the ObjectMapper of Spring Boot (dates as ISO strings, unknown properties ignored)
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        // Fixed month (May 2025: three public holidays on trip days), trips 4 days a week
+        request = new TimeSheetRequestDto(2025, 5, 4200.0, 4, "12 Rue Villiot, 75012 Paris", "CA-TS",
+                42.0, "Nacim", "RABIA", 5);
+        document = timeSheetService.prepareDocument(request);
+        response = timeSheetService.generateFraisKilometriques(request, "\"benchmark\"");
+    }
+
+    @Benchmark
+    public List<TimeSheetEntryDto> generateTimeSheet() {
+        return timeSheetService.generateTimeSheet(2025, 5, 4200.0, 4, "12 Rue Villiot, 75012 Paris",
+                "CA-TS", 42.0, 5);
+    }
+
+    @Benchmark
+    public TimeSheetDocument prepareDocument() {
+        return timeSheetService.prepareDocument(request);
+    }
+
+    @Benchmark
+    public String renderViewToString(View view) {
+        return timeSheetService.renderView(new ModelAndView(view.template, document.model()));
+    }
+
+    @Benchmark
+    public void renderViewToWriter(View view) {
+        timeSheetService.renderView(view.template, document.model(), Writer.nullWriter());
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public void writePdf() throws IOException {
+        pdfWriter.write(document, "benchmark", OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,249 @@
+package com.rnblock.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Admission path of the gateway under a mix of valid, invalid, out-of-credit and rate-limited keys.
+ *
+ * Starts the {@link StandIns} (embedded Postgres and Redis, stub backends), then the gateway jar
+ * against them, and runs {@code concurrency} closed-loop clients spread over the three routes for
+ * {@code warmup} then {@code duration} seconds. Reports the throughput and latency percentiles of
+ * each outcome (HTTP status), the statuses received by each key class, and the admission stage
+ * timers of the gateway ({@code gateway.admission.stage}).
+ */
+final class AdmissionMix {
+
+    private static final String[] STAGES = {
+            "hash", "resolve", "quota", "rate-limit", "redis-admission", "wallet-update", "wallet-select"};
+    private static final Pattern MEASUREMENT =
+            Pattern.compile("\"statistic\"\\s*:\\s*\"(COUNT|TOTAL_TIME|MAX)\"\\s*,\\s*\"value\"\\s*:\\s*([0-9.Ee+-]+)");
+
+    private final Map<Integer, LatencyHistogram> outcomes = new ConcurrentHashMap<>();
+    private final Map<KeyClass, Map<Integer, AtomicLong>> statusesByClass = new EnumMap<>(KeyClass.class);
+    private volatile boolean recording;
+    private int durationSeconds;
+
+    private AdmissionMix() {
+        for (KeyClass keyClass : KeyClass.values()) {
+            statusesByClass.put(keyClass, new ConcurrentHashMap<>());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        int concurrency = options.getInt("concurrency", 64);
+        int warmupSeconds = options.getInt("warmup", 10);
+        int durationSeconds = options.getInt("duration", 30);
+        int validKeys = options.getInt("keys", 1000);
+        int backendDelayMs = options.getInt("backendDelayMs", 0);
+        List<Weighted> mix = parseMix(options.get("mix", "valid=70,invalid=10,nocredit=10,ratelimited=10"));
+        Path jar = GatewayProcess.findJar(options.get("gatewayJar", null));
+        int gatewayPort = options.getInt("gatewayPort", StandIns.freePort());
+
+        System.out.println("Starting embedded Postgres, Redis and stub backends...");
+        try (StandIns standIns = StandIns.start(validKeys, backendDelayMs)) {
+            System.out.printf("Starting gateway %s on port %d (log: target/gateway.log)...%n", jar, gatewayPort);
+            try (GatewayProcess gateway = GatewayProcess.start(jar, gatewayPort, standIns.gatewayEnvironment(),
+                    options.get("jvmArgs", ""), options.get("gatewayArgs", ""),
+                    Path.of("target", "gateway.log"), Duration.ofSeconds(options.getInt("startTimeout", 120)))) {
+                new AdmissionMix().run(gateway, standIns, mix, concurrency, warmupSeconds, durationSeconds);
+            }
+        }
+    }
+
+    /**
+     * Runs the mix against a gateway already started on the stand-ins and prints the same report.
+     */
+    static AdmissionMix measure(GatewayProcess gateway, StandIns standIns, String mix, int concurrency,
+                                int warmupSeconds, int durationSeconds) throws Exception {
+        AdmissionMix admission = new AdmissionMix();
+        admission.run(gateway, standIns, parseMix(mix), concurrency, warmupSeconds, durationSeconds);
+        return admission;
+    }
+
+    double throughput() {
+        long total = outcomes.values().stream().mapToLong(LatencyHistogram::count).sum();
+        return (double) total / durationSeconds;
+    }
+
+    /**
+     * Latencies of the requests answered with this status, empty if none.
+     */
+    LatencyHistogram latency(int status) {
+        return outcomes.getOrDefault(status, new LatencyHistogram());
+    }
+
+    /**
+     * True if every key class got only the statuses it should (see {@link KeyClass#accepts}).
+     */
+    boolean statusesAsExpected() {
+        for (Map.Entry<KeyClass, Map<Integer, AtomicLong>> entry : statusesByClass.entrySet()) {
+            for (Integer status : entry.getValue().keySet()) {
+                if (!entry.getKey().accepts(status)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void run(GatewayProcess gateway, StandIns standIns, List<Weighted> mix, int concurrency,
+                     int warmupSeconds, int durationSeconds) throws Exception {
+        this.durationSeconds = durationSeconds;
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        List<String> routes = new ArrayList<>();
+        for (String prefix : StandIns.ROUTES.values()) {
+            routes.add(gateway.baseUrl() + prefix + "/ping");
+        }
+        int totalWeight = mix.get(mix.size() - 1).cumulative();
+
+        System.out.printf("Mix %s, %d clients, warm-up %d s, measure %d s%n", mix, concurrency, warmupSeconds, durationSeconds);
+        long warmupEnd = System.nanoTime() + warmupSeconds * 1_000_000_000L;
+        long end = warmupEnd + durationSeconds * 1_000_000_000L;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < end) {
+                        KeyClass keyClass = pick(mix, random.nextInt(totalWeight));
+                        String[] keys = standIns.keys(keyClass);
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(routes.get(random.nextInt(routes.size()))))
+                                .header("X-API-Key", keys[random.nextInt(keys.length)])
+                                .timeout(Duration.ofSeconds(30))
+                                .GET()
+                                .build();
+                        long start = System.nanoTime();
+                        int status;
+                        try {
+                            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception e) {
+                            status = -1;
+                        }
+                        if (recording) {
+                            record(keyClass, status, System.nanoTime() - start);
+                        }
+                    }
+                    return null;
+                });
+            }
+            Thread.sleep(Math.max(0, (warmupEnd - System.nanoTime()) / 1_000_000));
+            recording = true;
+            System.out.println("Warm-up done, measuring...");
+        }
+        recording = false;
+
+        report(durationSeconds);
+        reportStages(client, gateway);
+    }
+
+    private void record(KeyClass keyClass, int status, long nanos) {
+        outcomes.computeIfAbsent(status, s -> new LatencyHistogram()).record(nanos);
+        statusesByClass.get(keyClass).computeIfAbsent(status, s -> new AtomicLong()).incrementAndGet();
+    }
+
+    private void report(int durationSeconds) {
+        long total = outcomes.values().stream().mapToLong(LatencyHistogram::count).sum();
+        System.out.printf("%nRequests: %d, throughput: %.0f req/s%n%n", total, (double) total / durationSeconds);
+        System.out.printf("%-8s %10s %10s %9s %9s %9s %9s %9s %9s%n",
+                "Outcome", "Count", "req/s", "mean", "p50", "p90", "p99", "p99.9", "max (ms)");
+        for (Map.Entry<Integer, LatencyHistogram> entry : new TreeMap<>(outcomes).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            System.out.printf("%-8s %10d %10.0f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey() < 0 ? "error" : entry.getKey().toString(),
+                    histogram.count(), (double) histogram.count() / durationSeconds, histogram.meanMillis(),
+                    histogram.percentileMillis(50), histogram.percentileMillis(90),
+                    histogram.percentileMillis(99), histogram.percentileMillis(99.9), histogram.maxMillis());
+        }
+
+        System.out.printf("%nStatuses by key class (expected status first):%n");
+        for (Map.Entry<KeyClass, Map<Integer, AtomicLong>> entry : statusesByClass.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                System.out.printf("  %-12s expected %d: %s%n", entry.getKey().option, entry.getKey().expectedStatus,
+                        new TreeMap<>(entry.getValue()));
+            }
+        }
+    }
+
+    // Server-side view of the same run: mean and max of each admission stage, all routes and outcomes
+    private void reportStages(HttpClient client, GatewayProcess gateway) {
+        System.out.printf("%nGateway admission stages (since start, warm-up included):%n");
+        System.out.printf("  %-16s %12s %12s %12s%n", "Stage", "Count", "mean (µs)", "max (µs)");
+        for (String stage : STAGES) {
+            try {
+                String body = client.send(HttpRequest.newBuilder(URI.create(
+                                gateway.baseUrl() + "/actuator/metrics/gateway.admission.stage?tag=stage:" + stage))
+                        .GET().build(), HttpResponse.BodyHandlers.ofString()).body();
+                Map<String, Double> values = new TreeMap<>();
+                Matcher matcher = MEASUREMENT.matcher(body);
+                while (matcher.find()) {
+                    values.put(matcher.group(1), Double.parseDouble(matcher.group(2)));
+                }
+                double count = values.getOrDefault("COUNT", 0.0);
+                if (count == 0) {
+                    continue;
+                }
+                // TOTAL_TIME and MAX are in seconds (base unit of Micrometer timers)
+                System.out.printf("  %-16s %12.0f %12.1f %12.1f%n", stage, count,
+                        values.getOrDefault("TOTAL_TIME", 0.0) / count * 1_000_000,
+                        values.getOrDefault("MAX", 0.0) * 1_000_000);
+            } catch (Exception e) {
+                System.out.printf("  %-16s unavailable (%s)%n", stage, e.getMessage());
+            }
+        }
+    }
+
+    private static KeyClass pick(List<Weighted> mix, int value) {
+        for (Weighted weighted : mix) {
+            if (value < weighted.cumulative()) {
+                return weighted.keyClass();
+            }
+        }
+        return mix.get(mix.size() - 1).keyClass();
+    }
+
+    // valid=70,invalid=10,... -> cumulative weights
+    private static List<Weighted> parseMix(String value) {
+        List<Weighted> mix = new ArrayList<>();
+        int cumulative = 0;
+        for (String part : value.split(",")) {
+            String[] entry = part.split("[=:]");
+            int weight = Integer.parseInt(entry[1].trim());
+            if (weight > 0) {
+                cumulative += weight;
+                mix.add(new Weighted(KeyClass.of(entry[0].trim()), weight, cumulative));
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Empty mix: " + value);
+        }
+        return mix;
+    }
+
+    private record Weighted(KeyClass keyClass, int weight, int cumulative) {
+        @Override
+        public String toString() {
+            return keyClass.option + "=" + weight;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.rnblock.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrent-connection capacity of the gateway.
+ *
+ * Starts {@code concurrency} requests at the same time against a route served by
+ * {@link SlowBackend}. With platform threads, Tomcat holds at most server.tomcat.threads.max
+ * (200) requests at the backend at once and the others queue; with the virtual profile,
+ * all of them should reach the backend together.
+ */
+final class ConnectionCapacity {
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        String url = options.get("url", "http://localhost:8080/api/v1/template/ping");
+        int concurrency = options.getInt("concurrency", 2000);
+        String apiKey = options.get("apiKey", System.getenv("LOADTEST_API_KEY"));
+        String statsUrl = options.get("stats", "http://localhost:9091/stats");
+        if (apiKey == null) {
+            throw new IllegalArgumentException("apiKey=... or LOADTEST_API_KEY is required");
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("X-API-Key", apiKey)
+                .timeout(Duration.ofMinutes(5))
+                .GET()
+                .build();
+
+        // Reset the backend peak
+        fetch(client, statsUrl);
+
+        Map<Integer, AtomicInteger> statuses = new ConcurrentHashMap<>();
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        long[] latencies = new long[concurrency];
+
+        long begin;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                int index = i;
+                executor.submit(() -> {
+                    start.await();
+                    long t0 = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        statuses.computeIfAbsent(response.statusCode(), s -> new AtomicInteger()).incrementAndGet();
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    latencies[index] = System.nanoTime() - t0;
+                    return null;
+                });
+            }
+            begin = System.nanoTime();
+            start.countDown();
+        }
+        long elapsedMs = (System.nanoTime() - begin) / 1_000_000;
+
+        Arrays.sort(latencies);
+        System.out.printf("Requests:        %d%n", concurrency);
+        System.out.printf("Statuses:        %s, errors: %d%n", new TreeMap<>(statuses), errors.get());
+        System.out.printf("Elapsed:         %d ms%n", elapsedMs);
+        System.out.printf("Latency p50/p99: %d / %d ms%n",
+                latencies[concurrency / 2] / 1_000_000, latencies[(int) (concurrency * 0.99)] / 1_000_000);
+        System.out.printf("Backend stats:   %s%n", fetch(client, statsUrl));
+    }
+
+    private static String fetch(HttpClient client, String url) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(url)).GET().build(), HttpResponse.BodyHandlers.ofString()).body();
+    }
+}
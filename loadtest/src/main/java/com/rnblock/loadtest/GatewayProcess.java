@@ -0,0 +1,169 @@
+package com.rnblock.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * The gateway started in its own process, with its output written to a log file: the jar in a
+ * JVM, or the native executable built with {@code mvn -Pnative native:compile}.
+ */
+final class GatewayProcess implements AutoCloseable {
+
+    private final Process process;
+    private final int port;
+    private final long launchedNanos;
+    private long startupMillis;
+
+    private GatewayProcess(Process process, int port, long launchedNanos) {
+        this.process = process;
+        this.port = port;
+        this.launchedNanos = launchedNanos;
+    }
+
+    /**
+     * Starts the gateway and waits until /actuator/health answers.
+     *
+     * @param jar       gateway jar, or native executable (any other file name)
+     * @param jvmArgs   extra JVM options (runtime options such as -Xmx for the native executable), separated by spaces
+     * @param arguments extra Spring Boot arguments (e.g. --api.credits.ledger.enabled=true), separated by spaces
+     */
+    static GatewayProcess start(Path jar, int port, Map<String, String> environment, String jvmArgs,
+                                String arguments, Path log, Duration timeout) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        if (jar.getFileName().toString().endsWith(".jar")) {
+            command.add(ProcessHandle.current().info().command().orElse("java"));
+            command.addAll(split(jvmArgs));
+            command.add("-jar");
+            command.add(jar.toString());
+        } else {
+            command.add(jar.toAbsolutePath().toString());
+            command.addAll(split(jvmArgs));
+        }
+        command.add("--server.port=" + port);
+        command.addAll(split(arguments));
+
+        Files.createDirectories(log.toAbsolutePath().getParent());
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile());
+        builder.environment().putAll(environment);
+        long launched = System.nanoTime();
+        GatewayProcess gateway = new GatewayProcess(builder.start(), port, launched);
+        try {
+            gateway.awaitHealthy(timeout, log);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            gateway.close();
+            throw e;
+        }
+        return gateway;
+    }
+
+    /**
+     * Gateway jar built by api-gateway (mvn package), unless given explicitly.
+     */
+    static Path findJar(String configured) throws IOException {
+        if (configured != null) {
+            return Path.of(configured);
+        }
+        Path target = Path.of("..", "api-gateway", "target");
+        if (Files.isDirectory(target)) {
+            try (Stream<Path> files = Files.list(target)) {
+                List<Path> jars = files
+                        .filter(path -> path.getFileName().toString().matches("api-gateway-.*\\.jar"))
+                        .toList();
+                if (jars.size() == 1) {
+                    return jars.get(0);
+                }
+            }
+        }
+        throw new IllegalArgumentException("Gateway jar not found in " + target.toAbsolutePath()
+                + ": build it (cd ../api-gateway && ./mvnw package -DskipTests) or pass gatewayJar=...");
+    }
+
+    /**
+     * Native executable built by api-gateway (mvn -Pnative native:compile), unless given explicitly.
+     */
+    static Path findNative(String configured) {
+        Path executable = configured != null ? Path.of(configured) : Path.of("..", "api-gateway", "target", "api-gateway");
+        if (!Files.isExecutable(executable)) {
+            throw new IllegalArgumentException("Gateway native executable not found: " + executable.toAbsolutePath()
+                    + ": build it (cd ../api-gateway && mvn -Pnative native:compile -DskipTests) or pass gatewayNative=...");
+        }
+        return executable;
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + port;
+    }
+
+    /**
+     * Time from the launch of the process to the first healthy answer.
+     */
+    long startupMillis() {
+        return startupMillis;
+    }
+
+    /**
+     * Resident memory of the gateway process, in kB (Linux only, 0 elsewhere).
+     */
+    long residentKilobytes() {
+        return ProcessMemory.residentKilobytes(process.pid());
+    }
+
+    @Override
+    public void close() {
+        process.destroy();
+        try {
+            if (!process.waitFor(15, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitHealthy(Duration timeout, Path log) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl() + "/actuator/health"))
+                .timeout(Duration.ofSeconds(2))
+                .GET()
+                .build();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Gateway exited with status " + process.exitValue() + ", see " + log);
+            }
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    startupMillis = (System.nanoTime() - launchedNanos) / 1_000_000;
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            // Short enough to time the startup of the native executable (~100 ms)
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("Gateway not healthy after " + timeout.toSeconds() + " s, see " + log);
+    }
+
+    private static List<String> split(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(value.trim().split("\\s+")).toList();
+    }
+}
@@ -0,0 +1,35 @@
+package com.rnblock.loadtest;
+
+/**
+ * Kinds of API keys sent by the admission scenario, with the status the gateway should answer.
+ */
+enum KeyClass {
+    VALID("valid", 200),
+    INVALID("invalid", 401),
+    NO_CREDIT("nocredit", 402),
+    RATE_LIMITED("ratelimited", 429);
+
+    final String option;
+    final int expectedStatus;
+
+    KeyClass(String option, int expectedStatus) {
+        this.option = option;
+        this.expectedStatus = expectedStatus;
+    }
+
+    /**
+     * A rate-limited key is admitted until its bucket is empty: 200 is expected too.
+     */
+    boolean accepts(int status) {
+        return status == expectedStatus || (this == RATE_LIMITED && status == 200);
+    }
+
+    static KeyClass of(String option) {
+        for (KeyClass keyClass : values()) {
+            if (keyClass.option.equalsIgnoreCase(option)) {
+                return keyClass;
+            }
+        }
+        throw new IllegalArgumentException("Unknown key class: " + option + " (valid, invalid, nocredit, ratelimited)");
+    }
+}
@@ -0,0 +1,55 @@
+package com.rnblock.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Entry point: {@code java -jar target/loadtest.jar <scenario> [options]}.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            usage();
+            return;
+        }
+        String[] options = Arrays.copyOfRange(args, 1, args.length);
+        switch (args[0]) {
+            case "backend" -> SlowBackend.main(options);
+            case "connections" -> ConnectionCapacity.main(options);
+            case "admission" -> AdmissionMix.main(options);
+            case "startup" -> StartupTime.main(options);
+            case "native" -> NativeComparison.main(options);
+            default -> usage();
+        }
+    }
+
+    private static void usage() {
+        System.out.println("""
+                Usage: java -jar target/loadtest.jar <scenario> [options]
+
+                  backend      [port=9091] [delayMs=2000]
+                      Stub backend answering every request after delayMs.
+                  connections  [url=http://localhost:8080/api/v1/template/ping] [concurrency=2000]
+                               [apiKey=$LOADTEST_API_KEY] [stats=http://localhost:9091/stats]
+                      Opens concurrency requests at once through the gateway and reports
+                      how many were in flight at the backend at the same time.
+                  admission    [mix=valid=70,invalid=10,nocredit=10,ratelimited=10] [concurrency=64]
+                               [warmup=10] [duration=30] [keys=1000] [backendDelayMs=0]
+                               [gatewayJar=../api-gateway/target/api-gateway-*.jar] [gatewayPort=<free>]
+                               [jvmArgs=...] [gatewayArgs=--api.credits.ledger.enabled=true ...]
+                      Starts embedded Postgres and Redis, stub backends and the gateway jar, then
+                      reports throughput and latency percentiles per outcome (200/401/402/429).
+                  native       [targets=jvm,native] [starts=5] [concurrency=64] [warmup=30] [duration=60]
+                               [mix=...] [gatewayJar=...] [gatewayNative=../api-gateway/target/api-gateway]
+                               [jvmArgs=...] [nativeArgs=-Xmx256m ...] [gatewayArgs=...]
+                      Compares the JVM and native builds of the gateway on the admission mix: startup
+                      time, resident memory idle and under load, throughput and latency. Exits with
+                      status 1 if a key class gets an unexpected status (native smoke test).
+                  startup      [service=api-template] [jar=../services/<service>/target/<service>-*.jar]
+                               [variants=jar,extracted,cds,aot,lazy] [runs=5] [url=/actuator/health/readiness]
+                               [jvmArgs=...]
+                      Starts a backend service runs times per startup variant (extracted jar, AppCDS,
+                      Spring AOT, lazy initialization) and reports the time to the first 200 on url.
+                """);
+    }
+}
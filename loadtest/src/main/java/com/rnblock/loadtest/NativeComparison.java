@@ -0,0 +1,100 @@
+package com.rnblock.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JVM build of the gateway against its native executable, on the same stand-ins and load.
+ *
+ * For each target, starts the gateway {@code starts} times to time the startup (launch to first
+ * healthy answer) and read the resident memory once healthy, then runs the {@link AdmissionMix}
+ * on the last instance and reads the resident memory again under load. Fresh stand-ins are
+ * started for each target so that neither inherits the buckets or caches of the other.
+ *
+ * Also serves as the smoke test of the native image: the admission path (JPA entities, Bucket4j
+ * and Lua scripts on Redis) must answer every key class as the JVM does, otherwise the scenario
+ * exits with status 1.
+ */
+final class NativeComparison {
+
+    private NativeComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        List<String> targets = Arrays.asList(options.get("targets", "jvm,native").split(","));
+        int starts = options.getInt("starts", 5);
+        int concurrency = options.getInt("concurrency", 64);
+        int warmupSeconds = options.getInt("warmup", 30);
+        int durationSeconds = options.getInt("duration", 60);
+        int validKeys = options.getInt("keys", 1000);
+        String mix = options.get("mix", "valid=70,invalid=10,nocredit=10,ratelimited=10");
+        Duration startTimeout = Duration.ofSeconds(options.getInt("startTimeout", 120));
+
+        List<Result> results = new ArrayList<>();
+        for (String target : targets) {
+            Path executable = switch (target) {
+                case "jvm" -> GatewayProcess.findJar(options.get("gatewayJar", null));
+                case "native" -> GatewayProcess.findNative(options.get("gatewayNative", null));
+                default -> throw new IllegalArgumentException("Unknown target " + target + " (jvm, native)");
+            };
+            String runtimeArgs = options.get(target + "Args", "");
+            Path log = Path.of("target", "gateway-" + target + ".log");
+
+            System.out.printf("%n=== %s: %s (log: %s)%n", target, executable, log);
+            System.out.println("Starting embedded Postgres, Redis and stub backends...");
+            try (StandIns standIns = StandIns.start(validKeys, 0)) {
+                long[] startupMillis = new long[starts];
+                long idleKilobytes = 0;
+                for (int i = 0; i < starts; i++) {
+                    GatewayProcess gateway = GatewayProcess.start(executable, StandIns.freePort(),
+                            standIns.gatewayEnvironment(), runtimeArgs, options.get("gatewayArgs", ""), log, startTimeout);
+                    try {
+                        startupMillis[i] = gateway.startupMillis();
+                        idleKilobytes += gateway.residentKilobytes();
+                        if (i == starts - 1) {
+                            AdmissionMix admission = AdmissionMix.measure(gateway, standIns, mix, concurrency,
+                                    warmupSeconds, durationSeconds);
+                            results.add(new Result(target, startupMillis, idleKilobytes / starts,
+                                    gateway.residentKilobytes(), admission));
+                        }
+                    } finally {
+                        gateway.close();
+                    }
+                }
+            }
+        }
+
+        report(results, concurrency, durationSeconds);
+        if (results.stream().anyMatch(result -> !result.admission().statusesAsExpected())) {
+            System.out.println("\nFAILED: unexpected statuses (see \"Statuses by key class\" above)");
+            System.exit(1);
+        }
+    }
+
+    private static void report(List<Result> results, int concurrency, int durationSeconds) {
+        System.out.printf("%nJVM vs native (%d clients, %d s measured)%n", concurrency, durationSeconds);
+        System.out.printf("%-8s %12s %12s %12s %12s %10s %9s %9s %9s  %s%n", "Target", "start p50", "start max",
+                "RSS idle", "RSS load", "req/s", "p50", "p99", "p99.9", "statuses");
+        System.out.printf("%-8s %12s %12s %12s %12s %10s %9s %9s %9s%n",
+                "", "(ms)", "(ms)", "(MB)", "(MB)", "", "(ms)", "(ms)", "(ms)");
+        for (Result result : results) {
+            long[] startup = result.startupMillis().clone();
+            Arrays.sort(startup);
+            LatencyHistogram admitted = result.admission().latency(200);
+            System.out.printf("%-8s %12d %12d %12d %12d %10.0f %9.2f %9.2f %9.2f  %s%n", result.target(),
+                    startup[startup.length / 2], startup[startup.length - 1],
+                    result.idleKilobytes() / 1024, result.loadKilobytes() / 1024,
+                    result.admission().throughput(), admitted.percentileMillis(50), admitted.percentileMillis(99),
+                    admitted.percentileMillis(99.9), result.admission().statusesAsExpected() ? "ok" : "UNEXPECTED");
+        }
+        System.out.println("Latencies of admitted requests (200). Closed-loop clients: compare at equal concurrency.");
+    }
+
+    private record Result(String target, long[] startupMillis, long idleKilobytes, long loadKilobytes,
+                          AdmissionMix admission) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.rnblock.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@code key=value} command line options.
+ */
+final class Options {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    Options(String[] args) {
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0) {
+                values.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+        }
+    }
+
+    String get(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    int getInt(String name, int defaultValue) {
+        String value = values.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+}
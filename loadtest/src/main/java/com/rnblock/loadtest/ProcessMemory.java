@@ -0,0 +1,31 @@
+package com.rnblock.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resident memory (RSS) of a child process, read from /proc.
+ */
+final class ProcessMemory {
+
+    private static final Pattern RSS = Pattern.compile("VmRSS:\\s+(\\d+) kB");
+
+    private ProcessMemory() {
+    }
+
+    /**
+     * Resident memory in kB (Linux only, 0 elsewhere or once the process has exited).
+     */
+    static long residentKilobytes(long pid) {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        try {
+            Matcher matcher = RSS.matcher(Files.readString(status));
+            return matcher.find() ? Long.parseLong(matcher.group(1)) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
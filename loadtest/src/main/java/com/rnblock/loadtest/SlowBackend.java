@@ -0,0 +1,69 @@
+package com.rnblock.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stub backend service: answers every request after a fixed delay and tracks
+ * how many requests it holds at the same time. GET /stats returns the peak and
+ * resets it.
+ */
+final class SlowBackend {
+
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger peak = new AtomicInteger();
+
+    public static void main(String[] args) throws IOException {
+        Options options = new Options(args);
+        int port = options.getInt("port", 9091);
+        long delayMs = options.getInt("delayMs", 2000);
+
+        start(port, delayMs);
+        System.out.printf("Stub backend on port %d, delay %d ms%n", port, delayMs);
+    }
+
+    /**
+     * Starts a stub backend in this JVM (port 0 = any free port).
+     */
+    static HttpServer start(int port, long delayMs) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 10_000);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/stats", exchange -> {
+            int observed = peak.getAndSet(inFlight.get());
+            reply(exchange, "{\"peakInFlight\":" + observed + "}");
+        });
+        server.createContext("/", exchange -> {
+            int current = inFlight.incrementAndGet();
+            peak.accumulateAndGet(current, Math::max);
+            try {
+                exchange.getRequestBody().readAllBytes();
+                if (delayMs > 0) {
+                    Thread.sleep(delayMs);
+                }
+                reply(exchange, "{\"status\":\"ok\"}");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static void reply(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
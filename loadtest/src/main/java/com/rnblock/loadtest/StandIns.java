@@ -0,0 +1,194 @@
+package com.rnblock.loadtest;
+
+import com.sun.net.httpserver.HttpServer;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local stand-ins of everything the gateway talks to: an embedded Postgres (real binaries,
+ * started in a temporary directory), a redis-server on a free port and one stub backend per
+ * route. The schema is created and seeded with one pool of keys per {@link KeyClass}.
+ */
+final class StandIns implements AutoCloseable {
+
+    static final String PEPPER = "loadtest-pepper-0123456789abcdef";
+
+    // Route id -> path prefix, as in the gateway configuration
+    static final Map<String, String> ROUTES = Map.of(
+            "api-template", "/api/v1/template",
+            "api-pdf", "/api/v1/pdf",
+            "api-docling", "/api/v1/docling");
+
+    private static final int UNLIMITED_BALANCE = 1_000_000_000;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final EmbeddedPostgres postgres;
+    private final RedisServer redis;
+    private final int redisPort;
+    private final Map<String, HttpServer> backends = new LinkedHashMap<>();
+    private final Map<KeyClass, String[]> keys = new LinkedHashMap<>();
+
+    private StandIns(EmbeddedPostgres postgres, RedisServer redis, int redisPort) {
+        this.postgres = postgres;
+        this.redis = redis;
+        this.redisPort = redisPort;
+    }
+
+    /**
+     * Starts the stand-ins and seeds {@code validKeys} valid keys (plan pro, unlimited credits),
+     * one key of the production plan (20 requests per second) hammered to trigger 429, keys of an
+     * org without credits and unknown keys.
+     */
+    static StandIns start(int validKeys, long backendDelayMs) throws IOException, SQLException {
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+        int redisPort = freePort();
+        RedisServer redis = new RedisServer(redisPort);
+        redis.start();
+        StandIns standIns = new StandIns(postgres, redis, redisPort);
+        try {
+            for (String route : ROUTES.keySet()) {
+                standIns.backends.put(route, SlowBackend.start(0, backendDelayMs));
+            }
+            standIns.seed(validKeys);
+        } catch (IOException | SQLException | RuntimeException e) {
+            standIns.close();
+            throw e;
+        }
+        return standIns;
+    }
+
+    /**
+     * Environment of a gateway using these stand-ins.
+     */
+    Map<String, String> gatewayEnvironment() {
+        Map<String, String> environment = new LinkedHashMap<>();
+        environment.put("DATABASE_URL", postgres.getJdbcUrl("postgres", "postgres"));
+        environment.put("DATABASE_USERNAME", "postgres");
+        environment.put("DATABASE_PASSWORD", "postgres");
+        environment.put("SPRING_DATA_REDIS_HOST", "localhost");
+        environment.put("SPRING_DATA_REDIS_PORT", Integer.toString(redisPort));
+        environment.put("API_KEY_PEPPER", PEPPER);
+        environment.put("SERVICE_TEMPLATE_URL", backendUrl("api-template"));
+        environment.put("SERVICE_PDF_URL", backendUrl("api-pdf"));
+        environment.put("SERVICE_DOCLING_URL", backendUrl("api-docling"));
+        return environment;
+    }
+
+    String[] keys(KeyClass keyClass) {
+        return keys.get(keyClass);
+    }
+
+    @Override
+    public void close() {
+        backends.values().forEach(server -> server.stop(0));
+        try {
+            redis.stop();
+        } catch (IOException e) {
+            System.err.println("Failed to stop Redis: " + e.getMessage());
+        }
+        try {
+            postgres.close();
+        } catch (IOException e) {
+            System.err.println("Failed to stop Postgres: " + e.getMessage());
+        }
+    }
+
+    private String backendUrl(String route) {
+        return "http://localhost:" + backends.get(route).getAddress().getPort();
+    }
+
+    private void seed(int validKeys) throws IOException, SQLException {
+        try (Connection connection = postgres.getPostgresDatabase().getConnection()) {
+            try (Statement statement = connection.createStatement();
+                 InputStream schema = StandIns.class.getResourceAsStream("/loadtest/schema.sql")) {
+                statement.execute(new String(schema.readAllBytes(), StandardCharsets.UTF_8));
+            }
+
+            connection.setAutoCommit(false);
+            keys.put(KeyClass.VALID, insertKeys(connection, "org-valid", UNLIMITED_BALANCE, validKeys, "[\"plan:pro\"]"));
+            keys.put(KeyClass.RATE_LIMITED, insertKeys(connection, "org-rate-limited", UNLIMITED_BALANCE, 1, "[]"));
+            keys.put(KeyClass.NO_CREDIT, insertKeys(connection, "org-no-credit", 0, 16, "[\"plan:pro\"]"));
+            connection.commit();
+        }
+        String[] unknown = new String[1024];
+        for (int i = 0; i < unknown.length; i++) {
+            unknown[i] = newKey();
+        }
+        keys.put(KeyClass.INVALID, unknown);
+    }
+
+    private static String[] insertKeys(Connection connection, String orgId, int balance, int count, String scopes)
+            throws SQLException {
+        try (PreparedStatement wallet = connection.prepareStatement(
+                "INSERT INTO wallets (\"id\", \"orgId\", \"balance\", \"totalPurchased\") VALUES (?, ?, ?, ?)")) {
+            wallet.setString(1, "wallet-" + orgId);
+            wallet.setString(2, orgId);
+            wallet.setInt(3, balance);
+            wallet.setInt(4, balance);
+            wallet.executeUpdate();
+        }
+
+        String[] plainKeys = new String[count];
+        try (PreparedStatement apiKey = connection.prepareStatement(
+                "INSERT INTO api_keys (\"id\", \"keyHash\", \"orgId\", \"keyName\", \"keyHint\", \"scopes\", \"environment\") "
+                        + "VALUES (?, ?, ?, ?, ?, ?::jsonb, 'production')")) {
+            List<String> generated = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String plainKey = newKey();
+                generated.add(plainKey);
+                apiKey.setString(1, orgId + "-key-" + i);
+                apiKey.setString(2, hash(plainKey));
+                apiKey.setString(3, orgId);
+                apiKey.setString(4, "loadtest " + orgId + " " + i);
+                apiKey.setString(5, plainKey.substring(plainKey.length() - 4));
+                apiKey.setString(6, scopes);
+                apiKey.addBatch();
+            }
+            apiKey.executeBatch();
+            generated.toArray(plainKeys);
+        }
+        return plainKeys;
+    }
+
+    private static String newKey() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return "sk_live_" + Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    // Same as the gateway: hex(SHA-256(key + pepper))
+    private static String hash(String plainKey) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(plainKey.getBytes(StandardCharsets.UTF_8));
+            digest.update(PEPPER.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
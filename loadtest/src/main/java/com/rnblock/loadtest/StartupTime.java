@@ -0,0 +1,264 @@
+package com.rnblock.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Time-to-first-request of a backend service (api-template, api-pdf, api-docling) under the
+ * startup options of its Docker image.
+ *
+ * Each variant adds one option to the previous one, as the image does:
+ * <ul>
+ *   <li>{@code jar}: {@code java -jar} on the packaged (nested) jar;</li>
+ *   <li>{@code extracted}: the jar extracted with {@code -Djarmode=tools extract};</li>
+ *   <li>{@code cds}: plus the AppCDS archive of a training run ({@code -Dspring.context.exit=onRefresh});</li>
+ *   <li>{@code aot}: plus {@code -Dspring.aot.enabled=true} (jar built with {@code -Pfast-startup});</li>
+ *   <li>{@code lazy}: plus {@code -Dspring.main.lazy-initialization=true}.</li>
+ * </ul>
+ * The clock starts when the process is launched and stops at the first 200 on {@code url}
+ * (by default the readiness probe, which waits for the template and PDF warm-up).
+ */
+final class StartupTime {
+
+    private static final List<String> VARIANTS = List.of("jar", "extracted", "cds", "aot", "lazy");
+    private static final Pattern STARTED =
+            Pattern.compile("Started \\S+ in ([0-9.]+) seconds \\(process running for ([0-9.]+)\\)");
+
+    private final Path jar;
+    private final Path workDirectory;
+    private final String path;
+    private final String jvmArgs;
+    private final Duration timeout;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    private StartupTime(Path jar, Path workDirectory, String path, String jvmArgs, Duration timeout) {
+        this.jar = jar;
+        this.workDirectory = workDirectory;
+        this.path = path;
+        this.jvmArgs = jvmArgs;
+        this.timeout = timeout;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        String service = options.get("service", "api-template");
+        Path jar = findJar(service, options.get("jar", null));
+        int runs = options.getInt("runs", 5);
+        List<String> variants = Arrays.asList(options.get("variants", String.join(",", VARIANTS)).split(","));
+        StartupTime startup = new StartupTime(jar, Path.of("target", "startup", service).toAbsolutePath(),
+                options.get("url", "/actuator/health/readiness"), options.get("jvmArgs", ""),
+                Duration.ofSeconds(options.getInt("startTimeout", 120)));
+        startup.run(variants, runs);
+    }
+
+    private void run(List<String> variants, int runs) throws Exception {
+        boolean aotProcessed = isAotProcessed(jar);
+        Files.createDirectories(workDirectory);
+        Path extracted = null;
+        if (variants.stream().anyMatch(variant -> !variant.equals("jar"))) {
+            extracted = extract();
+            if (variants.stream().anyMatch(variant -> !variant.equals("jar") && !variant.equals("extracted"))) {
+                train(extracted, aotProcessed);
+            }
+        }
+
+        System.out.printf("%s, %d runs per variant, first request: GET %s (logs: %s)%n", jar, runs, path, workDirectory);
+        System.out.printf("%-10s %10s %10s %10s %12s %10s%n",
+                "Variant", "min (ms)", "p50 (ms)", "max (ms)", "started (s)", "RSS (MB)");
+        for (String variant : variants) {
+            if (!VARIANTS.contains(variant)) {
+                throw new IllegalArgumentException("Unknown variant " + variant + ", expected one of " + VARIANTS);
+            }
+            if ((variant.equals("aot") || variant.equals("lazy")) && !aotProcessed) {
+                System.out.printf("%-10s skipped: jar not AOT-processed (mvn -Pfast-startup package)%n", variant);
+                continue;
+            }
+            long[] millis = new long[runs];
+            double started = 0;
+            long rss = 0;
+            for (int i = 0; i < runs; i++) {
+                Run run = start(variant, extracted);
+                millis[i] = run.millis();
+                started += run.startedSeconds();
+                rss += run.rssKilobytes();
+            }
+            Arrays.sort(millis);
+            System.out.printf("%-10s %10d %10d %10d %12.2f %10d%n", variant, millis[0], millis[runs / 2],
+                    millis[runs - 1], started / runs, rss / runs / 1024);
+        }
+    }
+
+    private Run start(String variant, Path extracted) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(java());
+        command.addAll(split(jvmArgs));
+        int level = VARIANTS.indexOf(variant);
+        if (level >= VARIANTS.indexOf("cds")) {
+            command.add("-XX:SharedArchiveFile=" + archive());
+        }
+        if (level >= VARIANTS.indexOf("aot")) {
+            command.add("-Dspring.aot.enabled=true");
+        }
+        if (level >= VARIANTS.indexOf("lazy")) {
+            command.add("-Dspring.main.lazy-initialization=true");
+        }
+        command.add("-jar");
+        command.add(level == 0 ? jar.toString() : extracted.resolve(jar.getFileName()).toString());
+        int port = StandIns.freePort();
+        command.add("--server.port=" + port);
+
+        Path log = workDirectory.resolve(variant + ".log");
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            long deadline = start + timeout.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(variant + ": exited with status " + process.exitValue() + ", see " + log);
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        long millis = (System.nanoTime() - start) / 1_000_000;
+                        return new Run(millis, startedSeconds(log), ProcessMemory.residentKilobytes(process.pid()));
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(5);
+            }
+            throw new IllegalStateException(variant + ": no 200 on " + path + " after " + timeout.toSeconds() + " s, see " + log);
+        } finally {
+            stop(process);
+        }
+    }
+
+    private Path extract() throws IOException, InterruptedException {
+        Path extracted = workDirectory.resolve("extracted");
+        deleteRecursively(extracted);
+        exec("extract", java(), "-Djarmode=tools", "-jar", jar.toString(), "extract", "--destination", extracted.toString());
+        return extracted;
+    }
+
+    // Same training run as the Dockerfile: classes loaded up to the end of the context refresh
+    private void train(Path extracted, boolean aotProcessed) throws IOException, InterruptedException {
+        Files.deleteIfExists(archive());
+        List<String> command = new ArrayList<>(List.of(java(), "-XX:ArchiveClassesAtExit=" + archive(),
+                "-Dspring.context.exit=onRefresh"));
+        if (aotProcessed) {
+            command.add("-Dspring.aot.enabled=true");
+        }
+        command.addAll(List.of("-jar", extracted.resolve(jar.getFileName()).toString()));
+        exec("training", command.toArray(String[]::new));
+    }
+
+    private void exec(String name, String... command) throws IOException, InterruptedException {
+        Path log = workDirectory.resolve(name + ".log");
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        if (!process.waitFor(timeout.toSeconds(), TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            throw new IllegalStateException(name + " did not finish after " + timeout.toSeconds() + " s, see " + log);
+        }
+        if (process.exitValue() != 0) {
+            throw new IllegalStateException(name + " failed with status " + process.exitValue() + ", see " + log);
+        }
+    }
+
+    private Path archive() {
+        return workDirectory.resolve("app.jsa");
+    }
+
+    private static void stop(Process process) throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(15, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            process.waitFor();
+        }
+    }
+
+    // "Started ... in X seconds": context ready, before the ApplicationReadyEvent warm-up
+    private static double startedSeconds(Path log) throws IOException {
+        Matcher matcher = STARTED.matcher(Files.readString(log));
+        return matcher.find() ? Double.parseDouble(matcher.group(1)) : Double.NaN;
+    }
+
+    // The AOT-processed jar contains the generated context initializer of the application
+    private static boolean isAotProcessed(Path jar) throws IOException {
+        try (JarFile file = new JarFile(jar.toFile())) {
+            return file.stream().anyMatch(entry -> entry.getName().endsWith("__ApplicationContextInitializer.class"));
+        }
+    }
+
+    /**
+     * Service jar built by mvn package in ../services/{service}, unless given explicitly.
+     */
+    private static Path findJar(String service, String configured) throws IOException {
+        if (configured != null) {
+            return Path.of(configured).toAbsolutePath();
+        }
+        Path target = Path.of("..", "services", service, "target");
+        if (Files.isDirectory(target)) {
+            try (Stream<Path> files = Files.list(target)) {
+                List<Path> jars = files
+                        .filter(file -> file.getFileName().toString().matches(Pattern.quote(service) + "-[0-9].*\\.jar"))
+                        .toList();
+                if (jars.size() == 1) {
+                    return jars.get(0).toAbsolutePath();
+                }
+            }
+        }
+        throw new IllegalArgumentException("Service jar not found in " + target.toAbsolutePath()
+                + ": build it (cd ../services/" + service + " && ./mvnw -Pfast-startup package -DskipTests) or pass jar=...");
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted((a, b) -> b.compareTo(a)).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static String java() {
+        return ProcessHandle.current().info().command().orElse("java");
+    }
+
+    private static List<String> split(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(value.trim().split("\\s+")).toList();
+    }
+
+    private record Run(long millis, double startedSeconds, long rssKilobytes) {
+    }
+}
@@ -0,0 +1,46 @@
+-- Tables read and written by the gateway, as mapped by its entities
+-- (subset of the api-key-provider Drizzle schema, without foreign keys)
+
+CREATE TABLE "api_keys" (
+	"id" text PRIMARY KEY NOT NULL,
+	"keyHash" text NOT NULL UNIQUE,
+	"orgId" text,
+	"createdBy" text,
+	"keyName" text NOT NULL,
+	"keyPrefix" text DEFAULT 'sk_live' NOT NULL,
+	"keyHint" text,
+	"scopes" jsonb DEFAULT '[]'::jsonb NOT NULL,
+	"environment" text DEFAULT 'production' NOT NULL,
+	"dailyQuota" integer,
+	"monthlyQuota" integer,
+	"dailyUsed" integer DEFAULT 0,
+	"monthlyUsed" integer DEFAULT 0,
+	"isActive" boolean DEFAULT true NOT NULL,
+	"revokedAt" timestamp,
+	"revokedReason" text,
+	"lastUsedAt" timestamp,
+	"lastUsedIp" text,
+	"expiresAt" timestamp,
+	"createdAt" timestamp DEFAULT now() NOT NULL,
+	"updatedAt" timestamp DEFAULT now() NOT NULL,
+	"seq" bigint GENERATED ALWAYS AS IDENTITY
+);
+
+CREATE TABLE "wallets" (
+	"id" text PRIMARY KEY NOT NULL,
+	"orgId" text NOT NULL UNIQUE,
+	"balance" integer DEFAULT 0 NOT NULL,
+	"totalPurchased" integer DEFAULT 0 NOT NULL,
+	"totalUsed" integer DEFAULT 0 NOT NULL,
+	"currency" text DEFAULT 'EUR' NOT NULL,
+	"createdAt" timestamp DEFAULT now() NOT NULL,
+	"updatedAt" timestamp DEFAULT now() NOT NULL
+);
+
+CREATE TABLE "test_wallets" (
+	"id" text PRIMARY KEY NOT NULL,
+	"userId" text NOT NULL UNIQUE,
+	"balance" integer DEFAULT 100 NOT NULL,
+	"resetAt" timestamp NOT NULL,
+	"createdAt" timestamp DEFAULT now() NOT NULL
+);
@@ -0,0 +1,62 @@
+package com.api.docling.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * File de conversion de documents (docling.jobs).
+ */
+@Component
+@ConfigurationProperties(prefix = "docling.jobs")
+@Data
+public class JobProperties {
+
+    /**
+     * Répertoire des documents reçus et des résultats, vidé au démarrage
+     */
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "docling-jobs");
+
+    /**
+     * Conversions simultanées
+     */
+    private int workers = 2;
+
+    /**
+     * Jobs en attente au plus, au-delà les soumissions sont refusées (503)
+     */
+    private int queueCapacity = 500;
+
+    /**
+     * Durée de conservation d'un job terminé et de son résultat
+     */
+    private Duration resultTtl = Duration.ofHours(1);
+
+    /**
+     * Attente maximale d'un long-poll, sous les timeouts de la gateway
+     */
+    private Duration maxWait = Duration.ofSeconds(15);
+
+    /**
+     * Priorité maximale des jobs par plan de clé (en-tête X-Api-Plan posé par la gateway)
+     */
+    private Map<String, Integer> planMaxPriority = new HashMap<>();
+
+    /**
+     * Priorité maximale des plans absents de plan-max-priority et des requêtes sans plan
+     */
+    private int defaultMaxPriority = 5;
+
+    /**
+     * Priorité demandée ramenée au plafond du plan : un client ne peut pas passer devant les
+     * plans supérieurs en demandant 9.
+     */
+    public int priority(int requested, String plan) {
+        int max = plan != null ? planMaxPriority.getOrDefault(plan, defaultMaxPriority) : defaultMaxPriority;
+        return Math.clamp(requested, 0, Math.clamp(max, 0, 9));
+    }
+}
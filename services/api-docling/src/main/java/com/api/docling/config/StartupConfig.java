@@ -0,0 +1,21 @@
+package com.api.docling.config;
+
+import com.api.docling.service.impl.JobServiceImpl;
+import com.api.upload.UploadStore;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class StartupConfig {
+
+    /**
+     * Beans créés au démarrage même avec spring.main.lazy-initialization (image Docker) :
+     * les workers de conversion et les nettoyages @Scheduled ne démarrent qu'à la création
+     * du bean, qu'aucune requête ne déclencherait avant la première conversion.
+     */
+    @Bean
+    static LazyInitializationExcludeFilter eagerBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(JobServiceImpl.class, UploadStore.class);
+    }
+}
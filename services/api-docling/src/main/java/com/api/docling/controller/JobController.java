@@ -0,0 +1,122 @@
+package com.api.docling.controller;
+
+import com.api.docling.config.JobProperties;
+import com.api.docling.domain.ConversionJob;
+import com.api.docling.domain.JobStatus;
+import com.api.docling.domain.OutputFormat;
+import com.api.docling.domain.dto.JobDto;
+import com.api.docling.service.JobService;
+import com.api.upload.StoredUpload;
+import com.api.upload.UploadStore;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Conversion asynchrone : soumission (202 + id), suivi par polling ou long-polling, puis
+ * téléchargement du résultat. Aucun thread Tomcat n'attend la fin d'une conversion.
+ */
+@RestController
+@RequestMapping("/api/v1/docling/jobs")
+public class JobController {
+
+    private final JobService jobService;
+    private final JobProperties properties;
+    private final UploadStore uploadStore;
+
+    public JobController(JobService jobService, JobProperties properties, UploadStore uploadStore) {
+        this.jobService = jobService;
+        this.properties = properties;
+        this.uploadStore = uploadStore;
+    }
+
+    /**
+     * Le document est envoyé brut dans le corps de la requête (pas de multipart), ou désigné par
+     * {@code upload} s'il a été envoyé par morceaux. La priorité demandée est plafonnée selon le
+     * plan de la clé, transmis par la gateway.
+     */
+    @PostMapping
+    public ResponseEntity<JobDto> submit(
+        @RequestParam(defaultValue = "document.pdf") String filename,
+        @RequestParam(defaultValue = "MARKDOWN") OutputFormat format,
+        @RequestParam(defaultValue = "5") int priority,
+        @RequestParam(required = false) String upload,
+        @RequestHeader(value = "X-Api-Plan", required = false) String plan,
+        HttpServletRequest request
+    ) throws IOException {
+        StoredUpload document = upload != null
+            ? uploadStore.complete(upload)
+            : uploadStore.receive(request.getInputStream(), request.getContentLengthLong());
+        ConversionJob job;
+        try {
+            job = jobService.submit(document, filename, format, properties.priority(priority, plan));
+        } catch (IOException | RuntimeException e) {
+            document.delete();
+            throw e;
+        }
+        return ResponseEntity
+            .accepted()
+            .location(URI.create("/api/v1/docling/jobs/" + job.getId()))
+            .body(JobDto.of(job));
+    }
+
+    /**
+     * État du job. Avec {@code wait} (ex. PT10S), la réponse attend la fin du job, au plus
+     * {@code docling.jobs.max-wait}, sans bloquer de thread.
+     */
+    @GetMapping("/{id}")
+    public DeferredResult<JobDto> status(
+        @PathVariable String id,
+        @RequestParam(required = false) Duration wait
+    ) {
+        ConversionJob job = jobService.get(id);
+        Duration timeout = wait == null ? Duration.ZERO
+            : wait.compareTo(properties.getMaxWait()) > 0 ? properties.getMaxWait() : wait;
+
+        DeferredResult<JobDto> result = new DeferredResult<>(timeout.toMillis(), () -> JobDto.of(job));
+        if (timeout.isZero() || job.getStatus().isFinished()) {
+            result.setResult(JobDto.of(job));
+        } else {
+            job.completion().thenAccept(finished -> result.setResult(JobDto.of(finished)));
+        }
+        return result;
+    }
+
+    @GetMapping("/{id}/result")
+    public ResponseEntity<Resource> result(@PathVariable String id) {
+        ConversionJob job = jobService.get(id);
+        if (job.getStatus() != JobStatus.SUCCEEDED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Job " + id + " : " + job.getStatus());
+        }
+        return ResponseEntity.ok()
+            .contentType(job.getFormat().mediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(job.getResult().getFileName().toString())
+                .build()
+                .toString())
+            .body(new FileSystemResource(job.getResult()));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable String id) {
+        jobService.delete(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,127 @@
+package com.api.docling.domain;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Conversion d'un document, de la soumission à l'expiration de son résultat.
+ *
+ * Les champs d'état sont écrits par un seul worker et lus par les requêtes de suivi.
+ */
+public class ConversionJob {
+
+    private final String id;
+    private final String filename;
+    private final OutputFormat format;
+    private final int priority;
+    private final long sequence;
+    private final Path directory;
+    private final Instant submittedAt;
+    private final CompletableFuture<ConversionJob> completion = new CompletableFuture<>();
+
+    private volatile JobStatus status = JobStatus.PENDING;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile Path result;
+    private volatile String error;
+
+    public ConversionJob(String id, String filename, OutputFormat format, int priority, long sequence,
+                         Path directory, Instant submittedAt) {
+        this.id = id;
+        this.filename = filename;
+        this.format = format;
+        this.priority = priority;
+        this.sequence = sequence;
+        this.directory = directory;
+        this.submittedAt = submittedAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public OutputFormat getFormat() {
+        return format;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public Path getResult() {
+        return result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Terminé quand le job réussit, échoue ou est annulé.
+     */
+    public CompletableFuture<ConversionJob> completion() {
+        return completion;
+    }
+
+    public synchronized boolean start(Instant now) {
+        if (status != JobStatus.PENDING) {
+            return false;
+        }
+        status = JobStatus.RUNNING;
+        startedAt = now;
+        return true;
+    }
+
+    public synchronized boolean cancel(Instant now) {
+        if (status != JobStatus.PENDING) {
+            return false;
+        }
+        finish(JobStatus.CANCELLED, null, null, now);
+        return true;
+    }
+
+    public synchronized void succeed(Path result, Instant now) {
+        finish(JobStatus.SUCCEEDED, result, null, now);
+    }
+
+    public synchronized void fail(String error, Instant now) {
+        finish(JobStatus.FAILED, null, error, now);
+    }
+
+    private void finish(JobStatus status, Path result, String error, Instant now) {
+        this.result = result;
+        this.error = error;
+        this.finishedAt = now;
+        this.status = status;
+        completion.complete(this);
+    }
+}
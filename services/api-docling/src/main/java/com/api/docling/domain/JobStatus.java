@@ -0,0 +1,13 @@
+package com.api.docling.domain;
+
+public enum JobStatus {
+    PENDING,
+    RUNNING,
+    SUCCEEDED,
+    FAILED,
+    CANCELLED;
+
+    public boolean isFinished() {
+        return this != PENDING && this != RUNNING;
+    }
+}
@@ -0,0 +1,35 @@
+package com.api.docling.domain;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Formats de sortie de docling (option --to).
+ */
+public enum OutputFormat {
+    MARKDOWN("md", "md", MediaType.TEXT_MARKDOWN),
+    JSON("json", "json", MediaType.APPLICATION_JSON),
+    HTML("html", "html", MediaType.TEXT_HTML),
+    TEXT("text", "txt", MediaType.TEXT_PLAIN);
+
+    private final String option;
+    private final String extension;
+    private final MediaType mediaType;
+
+    OutputFormat(String option, String extension, MediaType mediaType) {
+        this.option = option;
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    public String option() {
+        return option;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+}
@@ -0,0 +1,34 @@
+package com.api.docling.domain.dto;
+
+import com.api.docling.domain.ConversionJob;
+import com.api.docling.domain.JobStatus;
+import com.api.docling.domain.OutputFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.Instant;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record JobDto(
+    String id,
+    JobStatus status,
+    String filename,
+    OutputFormat format,
+    int priority,
+    Instant submittedAt,
+    Instant startedAt,
+    Instant finishedAt,
+    String error
+) {
+    public static JobDto of(ConversionJob job) {
+        return new JobDto(
+            job.getId(),
+            job.getStatus(),
+            job.getFilename(),
+            job.getFormat(),
+            job.getPriority(),
+            job.getSubmittedAt(),
+            job.getStartedAt(),
+            job.getFinishedAt(),
+            job.getError()
+        );
+    }
+}
@@ -0,0 +1,18 @@
+package com.api.docling.service;
+
+import com.api.docling.domain.OutputFormat;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Moteur de conversion, appelé par les workers de la file de jobs.
+ */
+public interface DocumentConverter {
+
+    /**
+     * Convertit {@code input} et écrit le résultat dans {@code outputDirectory}.
+     *
+     * @return fichier résultat
+     */
+    Path convert(Path input, OutputFormat format, Path outputDirectory) throws IOException;
+}
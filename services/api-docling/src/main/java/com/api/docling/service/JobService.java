@@ -0,0 +1,27 @@
+package com.api.docling.service;
+
+import com.api.docling.domain.ConversionJob;
+import com.api.docling.domain.OutputFormat;
+import com.api.upload.StoredUpload;
+import java.io.IOException;
+
+public interface JobService {
+
+    /**
+     * Prend possession du document reçu et le place dans la file de conversion.
+     *
+     * @param priority de 0 (basse) à 9 (haute), les jobs de même priorité passent dans l'ordre d'arrivée
+     * @throws org.springframework.web.server.ResponseStatusException 503 si la file est pleine
+     */
+    ConversionJob submit(StoredUpload document, String filename, OutputFormat format, int priority) throws IOException;
+
+    /**
+     * @throws org.springframework.web.server.ResponseStatusException 404 si le job est inconnu ou expiré
+     */
+    ConversionJob get(String id);
+
+    /**
+     * Annule un job en attente, ou supprime un job terminé et son résultat.
+     */
+    void delete(String id);
+}
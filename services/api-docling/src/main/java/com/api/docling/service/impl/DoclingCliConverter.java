@@ -0,0 +1,76 @@
+package com.api.docling.service.impl;
+
+import com.api.docling.domain.OutputFormat;
+import com.api.docling.service.DocumentConverter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Conversion par la CLI docling ({@code docling --to <format> --output <dir> <fichier>}).
+ */
+@Service
+@Slf4j
+public class DoclingCliConverter implements DocumentConverter {
+
+    private final String command;
+    private final Duration timeout;
+
+    public DoclingCliConverter(
+        @Value("${docling.converter.command:docling}") String command,
+        @Value("${docling.converter.timeout:PT10M}") Duration timeout
+    ) {
+        this.command = command;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public Path convert(Path input, OutputFormat format, Path outputDirectory) throws IOException {
+        List<String> arguments = new ArrayList<>(List.of(command.split("\\s+")));
+        arguments.addAll(List.of("--to", format.option(), "--output", outputDirectory.toString(), input.toString()));
+
+        Path log = outputDirectory.resolve("docling.log");
+        Process process = new ProcessBuilder(arguments)
+            .redirectErrorStream(true)
+            .redirectOutput(log.toFile())
+            .start();
+        try {
+            if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+                throw new IOException("Conversion interrompue après " + timeout);
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new IOException("Conversion interrompue", e);
+        }
+        if (process.exitValue() != 0) {
+            throw new IOException("docling a échoué (code " + process.exitValue() + ") : " + tail(log));
+        }
+
+        try (Stream<Path> files = Files.list(outputDirectory)) {
+            return files
+                .filter(file -> file.getFileName().toString().endsWith("." + format.extension()))
+                .findFirst()
+                .orElseThrow(() -> new IOException("docling n'a produit aucun fichier ." + format.extension()));
+        }
+    }
+
+    // Dernière ligne de la sortie de docling, pour le message d'erreur du job
+    private static String tail(Path log) {
+        try {
+            List<String> lines = Files.readAllLines(log);
+            return lines.isEmpty() ? "" : lines.get(lines.size() - 1);
+        } catch (IOException e) {
+            return "";
+        }
+    }
+}
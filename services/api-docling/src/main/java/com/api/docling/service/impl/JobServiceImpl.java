@@ -0,0 +1,231 @@
+package com.api.docling.service.impl;
+
+import com.api.docling.config.JobProperties;
+import com.api.docling.domain.ConversionJob;
+import com.api.docling.domain.JobStatus;
+import com.api.docling.domain.OutputFormat;
+import com.api.docling.service.DocumentConverter;
+import com.api.docling.service.JobService;
+import com.api.upload.StoredUpload;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * File de conversion : les documents reçus sont déplacés dans le répertoire du job, puis convertis
+ * par un nombre fixe de workers, par priorité décroissante puis dans l'ordre d'arrivée.
+ *
+ * Les jobs terminés et leurs fichiers sont supprimés après {@code docling.jobs.result-ttl}.
+ * Métriques : {@code docling.jobs.queue.depth}, {@code docling.jobs.running},
+ * {@code docling.jobs.wait} (attente en file), {@code docling.jobs.processing} (conversion,
+ * par résultat) et {@code docling.jobs.rejected} (file pleine).
+ */
+@Service
+@Slf4j
+public class JobServiceImpl implements JobService {
+
+    private static final Comparator<ConversionJob> PRIORITY_ORDER = Comparator
+        .comparingInt(ConversionJob::getPriority).reversed()
+        .thenComparingLong(ConversionJob::getSequence);
+
+    private final JobProperties properties;
+    private final DocumentConverter converter;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, ConversionJob> jobs = new ConcurrentHashMap<>();
+    private final PriorityBlockingQueue<ConversionJob> queue = new PriorityBlockingQueue<>(64, PRIORITY_ORDER);
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public JobServiceImpl(JobProperties properties, DocumentConverter converter, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.converter = converter;
+        this.meterRegistry = meterRegistry;
+        this.waitTimer = Timer.builder("docling.jobs.wait")
+            .description("Time spent by conversion jobs in the queue")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.rejected = Counter.builder("docling.jobs.rejected")
+            .description("Conversion jobs rejected because the queue was full")
+            .register(meterRegistry);
+        Gauge.builder("docling.jobs.queue.depth", queued, AtomicInteger::get)
+            .description("Conversion jobs waiting for a worker")
+            .register(meterRegistry);
+        Gauge.builder("docling.jobs.running", running, AtomicInteger::get)
+            .description("Conversion jobs being processed")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        // L'index des jobs est en mémoire : les fichiers d'une exécution précédente sont orphelins
+        FileSystemUtils.deleteRecursively(properties.getDirectory());
+        Files.createDirectories(properties.getDirectory());
+
+        for (int i = 0; i < properties.getWorkers(); i++) {
+            workers.add(Thread.ofPlatform().name("docling-worker-" + i).start(this::work));
+        }
+        log.info("File de conversion : {} workers, {} jobs en attente au plus, répertoire {}",
+            properties.getWorkers(), properties.getQueueCapacity(), properties.getDirectory());
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.forEach(Thread::interrupt);
+    }
+
+    @Override
+    public ConversionJob submit(StoredUpload document, String filename, OutputFormat format, int priority)
+        throws IOException {
+        String name = safeFilename(filename);
+        if (queued.incrementAndGet() > properties.getQueueCapacity()) {
+            queued.decrementAndGet();
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "File de conversion pleine");
+        }
+
+        String id = UUID.randomUUID().toString();
+        Path directory = properties.getDirectory().resolve(id);
+        try {
+            Path input = Files.createDirectories(directory.resolve("input")).resolve(name);
+            Files.move(document.path(), input);
+            Files.createDirectories(directory.resolve("output"));
+        } catch (IOException | RuntimeException e) {
+            queued.decrementAndGet();
+            FileSystemUtils.deleteRecursively(directory);
+            throw e;
+        }
+
+        ConversionJob job = new ConversionJob(id, name, format,
+            Math.clamp(priority, 0, 9), sequence.incrementAndGet(), directory, Instant.now());
+        jobs.put(id, job);
+        queue.add(job);
+        log.debug("Job {} soumis ({}, priorité {})", id, job.getFilename(), job.getPriority());
+        return job;
+    }
+
+    @Override
+    public ConversionJob get(String id) {
+        ConversionJob job = jobs.get(id);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Job inconnu ou expiré : " + id);
+        }
+        return job;
+    }
+
+    @Override
+    public void delete(String id) {
+        ConversionJob job = get(id);
+        if (job.cancel(Instant.now())) {
+            // Retiré de la file ici, ou ignoré par le worker qui le prendra
+            if (queue.remove(job)) {
+                queued.decrementAndGet();
+            }
+        } else if (!job.getStatus().isFinished()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Job en cours de conversion : " + id);
+        }
+        remove(job);
+    }
+
+    /**
+     * Supprime les jobs terminés depuis plus de {@code docling.jobs.result-ttl}.
+     */
+    @Scheduled(fixedDelayString = "${docling.jobs.cleanup-interval:PT1M}")
+    public void evictExpired() {
+        Instant expiredBefore = Instant.now().minus(properties.getResultTtl());
+        jobs.values().stream()
+            .filter(job -> job.getStatus().isFinished() && job.getFinishedAt().isBefore(expiredBefore))
+            .forEach(this::remove);
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            ConversionJob job;
+            try {
+                job = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            queued.decrementAndGet();
+            Instant startedAt = Instant.now();
+            if (!job.start(startedAt)) {
+                continue; // Annulé pendant l'attente
+            }
+            waitTimer.record(Duration.between(job.getSubmittedAt(), startedAt));
+            process(job);
+        }
+    }
+
+    private void process(ConversionJob job) {
+        running.incrementAndGet();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            Path input;
+            try (Stream<Path> files = Files.list(job.getDirectory().resolve("input"))) {
+                input = files.findFirst().orElseThrow(() -> new IOException("Document introuvable"));
+            }
+            Path result = converter.convert(input, job.getFormat(), job.getDirectory().resolve("output"));
+            // Le document source n'est plus utile, seul le résultat est conservé jusqu'à expiration
+            FileSystemUtils.deleteRecursively(input.getParent());
+            job.succeed(result, Instant.now());
+            log.debug("Job {} converti", job.getId());
+        } catch (IOException | RuntimeException e) {
+            outcome = "failure";
+            job.fail(e.getMessage(), Instant.now());
+            log.warn("Échec de la conversion du job {} : {}", job.getId(), e.getMessage());
+        } finally {
+            running.decrementAndGet();
+            sample.stop(Timer.builder("docling.jobs.processing")
+                .description("Conversion time of jobs")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        }
+    }
+
+    private void remove(ConversionJob job) {
+        jobs.remove(job.getId());
+        try {
+            FileSystemUtils.deleteRecursively(job.getDirectory());
+        } catch (IOException e) {
+            log.warn("Suppression des fichiers du job {} impossible", job.getId(), e);
+        }
+    }
+
+    private static String safeFilename(String filename) {
+        String name = filename == null ? ""
+            : filename.substring(Math.max(filename.lastIndexOf('/'), filename.lastIndexOf('\\')) + 1);
+        name = name.replaceAll("[^A-Za-z0-9._-]", "_");
+        return name.isBlank() || name.startsWith(".") ? "document" + name : name;
+    }
+}
@@ -2,8 +2,10 @@ package com.api.pdf;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ApiPdfApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(ApiPdfApplication.class, args);
@@ -0,0 +1,20 @@
+package com.api.pdf.config;
+
+import com.api.upload.UploadStore;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class StartupConfig {
+
+    /**
+     * Beans créés au démarrage même avec spring.main.lazy-initialization (image Docker) :
+     * le nettoyage @Scheduled des envois abandonnés ne démarre qu'à la création du bean.
+     * Le moteur PDF est créé par son préchargement (ApplicationReadyEvent).
+     */
+    @Bean
+    static LazyInitializationExcludeFilter eagerBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(UploadStore.class);
+    }
+}
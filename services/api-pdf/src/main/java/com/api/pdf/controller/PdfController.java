@@ -0,0 +1,53 @@
+package com.api.pdf.controller;
+
+import com.api.pdf.service.PdfService;
+import com.api.upload.StoredUpload;
+import com.api.upload.UploadStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/pdf")
+public class PdfController {
+
+    private final PdfService pdfService;
+    private final UploadStore uploadStore;
+
+    public PdfController(PdfService pdfService, UploadStore uploadStore) {
+        this.pdfService = pdfService;
+        this.uploadStore = uploadStore;
+    }
+
+    /**
+     * Convertit le HTML reçu (par exemple une note de frais d'api-template) en PDF.
+     * Le HTML est écrit sur disque puis lu par régions projetées en mémoire (ou désigné par
+     * {@code upload} s'il a été envoyé par morceaux) ; le PDF est écrit directement dans la réponse.
+     */
+    @PostMapping(value = "/render", produces = MediaType.APPLICATION_PDF_VALUE)
+    public void render(
+        @RequestParam(defaultValue = "document.pdf") String filename,
+        @RequestParam(required = false) String upload,
+        HttpServletRequest request,
+        HttpServletResponse response
+    ) throws IOException {
+        StoredUpload html = upload != null
+            ? uploadStore.complete(upload)
+            : uploadStore.receive(request.getInputStream(), request.getContentLengthLong());
+        try (InputStream document = html.inputStream()) {
+            response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline().filename(filename).build().toString());
+            pdfService.render(document, response.getOutputStream());
+        } finally {
+            html.delete();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.api.pdf.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface PdfService {
+
+    /**
+     * Convertit un document HTML (UTF-8) en PDF, écrit au fil de l'eau dans {@code output}.
+     *
+     * Les scripts du document sont ignorés et remplacés par la feuille de style locale
+     * {@code pdf/documents.css} : le rendu n'accède jamais au réseau.
+     */
+    void render(InputStream html, OutputStream output) throws IOException;
+}
@@ -0,0 +1,37 @@
+package com.api.pdf.service.impl;
+
+import com.openhtmltopdf.extend.FSCacheEx;
+import com.openhtmltopdf.extend.FSCacheValue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache des métriques de polices partagé par tous les rendus : chaque police n'est analysée
+ * qu'une fois par instance.
+ */
+class ConcurrentFontCache implements FSCacheEx<String, FSCacheValue> {
+
+    private final ConcurrentMap<String, FSCacheValue> values = new ConcurrentHashMap<>();
+
+    @Override
+    public void put(String key, FSCacheValue value) {
+        values.put(key, value);
+    }
+
+    @Override
+    public FSCacheValue get(String key, Callable<? extends FSCacheValue> loader) {
+        return values.computeIfAbsent(key, k -> {
+            try {
+                return loader.call();
+            } catch (Exception e) {
+                throw new IllegalStateException("Chargement de la police impossible: " + k, e);
+            }
+        });
+    }
+
+    @Override
+    public FSCacheValue get(String key) {
+        return values.get(key);
+    }
+}
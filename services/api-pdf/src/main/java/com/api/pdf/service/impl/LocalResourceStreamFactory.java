@@ -0,0 +1,91 @@
+package com.api.pdf.service.impl;
+
+import com.openhtmltopdf.extend.FSStream;
+import com.openhtmltopdf.extend.FSStreamFactory;
+import com.openhtmltopdf.extend.FSUriResolver;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Ressources des documents (images, feuilles de style) servies depuis le classpath
+ * ({@code classpath:pdf/...}) et gardées en mémoire entre les rendus.
+ *
+ * Toute autre URL est refusée dès sa résolution ({@link #resolveURI}), quel que soit son schéma
+ * (http, file, ftp, jar...) : le HTML vient de l'appelant, il ne doit lire ni le disque du
+ * service ni le réseau.
+ */
+@Slf4j
+class LocalResourceStreamFactory implements FSStreamFactory, FSUriResolver {
+
+    static final String PROTOCOL = "classpath";
+    private static final String ROOT = "pdf/";
+    private static final byte[] MISSING = new byte[0];
+
+    private final ConcurrentMap<String, byte[]> resources = new ConcurrentHashMap<>();
+
+    /**
+     * Résout {@code uri} par rapport au document ; null (ressource ignorée) hors du schéma classpath.
+     */
+    @Override
+    public String resolveURI(String baseUri, String uri) {
+        if (uri == null) {
+            return null;
+        }
+        try {
+            URI resolved = baseUri != null ? URI.create(baseUri).resolve(uri) : URI.create(uri);
+            if (PROTOCOL.equals(resolved.getScheme()) && resolved.getAuthority() == null) {
+                return resolved.toString();
+            }
+        } catch (IllegalArgumentException e) {
+            // URI mal formée : ignorée comme une ressource externe
+        }
+        log.warn("Ressource externe ignorée: {}", uri);
+        return null;
+    }
+
+    @Override
+    public FSStream getUrl(String url) {
+        if (!url.startsWith(PROTOCOL + ":")) {
+            log.warn("Ressource externe ignorée: {}", url);
+            return new CachedStream(null);
+        }
+        byte[] content = resources.computeIfAbsent(url, LocalResourceStreamFactory::load);
+        return new CachedStream(content == MISSING ? null : content);
+    }
+
+    private static byte[] load(String url) {
+        String path = url.substring(PROTOCOL.length() + 1).replaceFirst("^/+", "");
+        if (!path.startsWith(ROOT) || path.contains("..")) {
+            log.warn("Ressource hors de {} ignorée: {}", ROOT, url);
+            return MISSING;
+        }
+        try (InputStream in = new ClassPathResource(path).getInputStream()) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            log.warn("Ressource introuvable: {}", url);
+            return MISSING;
+        }
+    }
+
+    private record CachedStream(byte[] content) implements FSStream {
+
+        @Override
+        public InputStream getStream() {
+            return content != null ? new ByteArrayInputStream(content) : null;
+        }
+
+        @Override
+        public Reader getReader() {
+            return content != null ? new InputStreamReader(getStream(), StandardCharsets.UTF_8) : null;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.api.pdf.service.impl;
+
+import com.api.pdf.service.PdfService;
+import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Jsoup;
+import org.jsoup.helper.W3CDom;
+import org.jsoup.nodes.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Rendu HTML vers PDF avec openhtmltopdf (PDFBox), sans navigateur ni accès réseau.
+ *
+ * Un renderer openhtmltopdf ne sert qu'une fois : ce qui coûte (polices, feuille de style,
+ * ressources, classes du moteur) est chargé une fois au démarrage et partagé par tous les
+ * rendus. Le nombre de rendus simultanés est borné ({@code pdf.renderer.concurrency}) pour
+ * garder une latence prévisible sous charge : au-delà, la requête attend au plus
+ * {@code pdf.renderer.acquire-timeout} puis reçoit un 503. Le parsing (DOM jsoup puis DOM W3C,
+ * plusieurs fois la taille du HTML en mémoire) fait partie de la section bornée : la mémoire
+ * des rendus en cours est bornée elle aussi.
+ */
+@Service
+@Slf4j
+public class PdfServiceImpl implements PdfService {
+
+    private static final String STYLESHEET = "pdf/documents.css";
+    private static final String BASE_URI = LocalResourceStreamFactory.PROTOCOL + ":/pdf/";
+
+    private static final String WARM_UP_DOCUMENT = """
+        <html><head><script src="https://cdn.tailwindcss.com"></script></head>
+        <body class="font-sans"><table class="w-full border-collapse text-xs main-table-bordered">
+        <tr><td class="p-1 bg-[#0f2c4a] text-white font-bold">Préchargement</td><td class="p-1">1,0 km</td></tr>
+        </table></body></html>
+        """;
+
+    private final String stylesheet;
+    private final Map<String, byte[]> fonts;
+    private final ConcurrentFontCache fontCache = new ConcurrentFontCache();
+    private final LocalResourceStreamFactory resources = new LocalResourceStreamFactory();
+    private final Semaphore renderers;
+    private final Duration acquireTimeout;
+
+    public PdfServiceImpl(
+        @Value("${pdf.renderer.concurrency:0}") int concurrency,
+        @Value("${pdf.renderer.acquire-timeout:PT5S}") Duration acquireTimeout,
+        @Value("${pdf.fonts.directory:}") String fontsDirectory
+    ) throws IOException {
+        int permits = concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors();
+        this.renderers = new Semaphore(permits, true);
+        this.acquireTimeout = acquireTimeout;
+        this.stylesheet = new ClassPathResource(STYLESHEET).getContentAsString(StandardCharsets.UTF_8);
+        this.fonts = loadFonts(fontsDirectory);
+        log.info("Rendu PDF : {} rendus simultanés, polices {}", permits, fonts.keySet());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.nanoTime();
+        try {
+            render(new ByteArrayInputStream(WARM_UP_DOCUMENT.getBytes(StandardCharsets.UTF_8)), OutputStream.nullOutputStream());
+            log.info("Moteur PDF préchargé en {} ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Préchargement du moteur PDF impossible", e);
+        }
+    }
+
+    @Override
+    public void render(InputStream html, OutputStream output) throws IOException {
+        // Permis pris avant le parsing : les DOM d'un document ne sont construits qu'une fois sa place obtenue
+        acquire();
+        try {
+            org.w3c.dom.Document document = prepare(html);
+            PdfRendererBuilder builder = new PdfRendererBuilder();
+            builder.useFastMode();
+            builder.useCacheStore(PdfRendererBuilder.CacheStore.PDF_FONT_METRICS, fontCache);
+            // Les URLs hors classpath (file:, jar:, ftp:, http...) sont refusées à la résolution, avant tout chargement
+            builder.useUriResolver(resources);
+            builder.useProtocolsStreamImplementation(resources, LocalResourceStreamFactory.PROTOCOL, "http", "https");
+            fonts.forEach((family, bytes) -> builder.useFont(() -> new ByteArrayInputStream(bytes), family));
+            builder.withW3cDocument(document, BASE_URI);
+            builder.toStream(output);
+            builder.run();
+        } finally {
+            renderers.release();
+        }
+    }
+
+    private org.w3c.dom.Document prepare(InputStream html) throws IOException {
+        Document document = Jsoup.parse(html, StandardCharsets.UTF_8.name(), BASE_URI);
+        // Le script Tailwind (CDN) est remplacé par sa version précompilée locale
+        document.select("script").remove();
+        document.head().appendElement("style").appendText(stylesheet);
+        return new W3CDom().fromJsoup(document);
+    }
+
+    private void acquire() {
+        try {
+            if (!renderers.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Trop de rendus PDF en cours");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Rendu PDF interrompu");
+        }
+    }
+
+    private static Map<String, byte[]> loadFonts(String directory) throws IOException {
+        Map<String, byte[]> fonts = new LinkedHashMap<>();
+        if (directory == null || directory.isBlank()) {
+            return fonts;
+        }
+        // Une famille par fichier, nommée d'après le fichier (ex. Inter.ttf -> font-family: Inter)
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Path.of(directory), "*.{ttf,otf}")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                fonts.put(name.substring(0, name.lastIndexOf('.')), Files.readAllBytes(file));
+            }
+        }
+        return fonts;
+    }
+}
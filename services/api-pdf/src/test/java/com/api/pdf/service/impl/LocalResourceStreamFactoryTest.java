@@ -0,0 +1,53 @@
+package com.api.pdf.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LocalResourceStreamFactoryTest {
+
+	private static final String BASE_URI = LocalResourceStreamFactory.PROTOCOL + ":/pdf/";
+
+	private final LocalResourceStreamFactory resources = new LocalResourceStreamFactory();
+
+	@Test
+	void relativeUrisResolveUnderTheClasspath() {
+		assertThat(resources.resolveURI(BASE_URI, "documents.css")).isEqualTo("classpath:/pdf/documents.css");
+	}
+
+	@Test
+	void otherSchemesAreRejected() {
+		assertThat(resources.resolveURI(BASE_URI, "file:///etc/hostname")).isNull();
+		assertThat(resources.resolveURI(BASE_URI, "jar:file:/app/app.jar!/application.properties")).isNull();
+		assertThat(resources.resolveURI(BASE_URI, "ftp://example.com/style.css")).isNull();
+		assertThat(resources.resolveURI(BASE_URI, "https://cdn.tailwindcss.com")).isNull();
+		assertThat(resources.resolveURI(BASE_URI, "//example.com/style.css")).isNull();
+	}
+
+	@Test
+	void fileStylesheetIsIgnoredWhenRendering(@TempDir Path directory) throws IOException {
+		// Chargée, cette feuille réduirait la page à 100px de côté
+		Path stylesheet = Files.writeString(directory.resolve("page.css"), "@page { size: 100px 100px; }");
+		String html = """
+			<html><head><link rel="stylesheet" href="%s"/></head>
+			<body><img src="file:///etc/hostname"/><p>Note de frais</p></body></html>
+			""".formatted(stylesheet.toUri());
+		PdfServiceImpl pdfService = new PdfServiceImpl(1, Duration.ofSeconds(5), "");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		pdfService.render(new ByteArrayInputStream(html.getBytes(StandardCharsets.UTF_8)), out);
+
+		try (PDDocument pdf = PDDocument.load(out.toByteArray())) {
+			assertThat(pdf.getPage(0).getMediaBox().getWidth()).isGreaterThan(500f);
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package com.api.template.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class BatchConfig {
+
+    /**
+     * Pool dédié au rendu des lots : le rendu est CPU-bound, un thread par cœur suffit
+     * et les lots ne peuvent pas saturer les threads Tomcat.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService batchRenderExecutor(
+        @Value("${template.batch.threads:0}") int threads
+    ) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadFactory factory = Thread.ofPlatform().name("batch-render-", 0).daemon(true).factory();
+        return Executors.newFixedThreadPool(size, factory);
+    }
+}
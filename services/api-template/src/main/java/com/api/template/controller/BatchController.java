@@ -0,0 +1,139 @@
+package com.api.template.controller;
+
+import com.api.template.domain.dto.BatchResultDto;
+import com.api.template.domain.dto.TimeSheetRequestDto;
+import com.api.template.service.DocumentCache;
+import com.api.template.service.TimeSheetService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Génération par lot : toute une équipe ou toute une année en un seul appel (et une seule admission
+ * à la gateway).
+ *
+ * Les documents sont rendus en parallèle sur {@code batchRenderExecutor} et renvoyés en NDJSON,
+ * une ligne par requête, dans l'ordre des requêtes. Au plus {@code template.batch.window}
+ * documents sont en cours ou en attente d'écriture à la fois. L'échec d'une requête, quel qu'il
+ * soit, donne une ligne d'erreur pour cette requête ; seul un échec d'écriture (client
+ * déconnecté) arrête le lot.
+ */
+@RestController
+@RequestMapping("/api/v1/template/batch")
+@Slf4j
+public class BatchController {
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String FRAIS_KILOMETRIQUES_TEMPLATE = "frais-kilometriques-template";
+
+    private final TimeSheetService timeSheetService;
+    private final DocumentCache documentCache;
+    private final ExecutorService batchRenderExecutor;
+    private final ObjectMapper objectMapper;
+
+    @Value("${template.batch.max-size:1000}")
+    private int maxSize;
+
+    @Value("${template.batch.window:32}")
+    private int window;
+
+    public BatchController(
+        TimeSheetService timeSheetService,
+        DocumentCache documentCache,
+        @Qualifier("batchRenderExecutor") ExecutorService batchRenderExecutor,
+        ObjectMapper objectMapper
+    ) {
+        this.timeSheetService = timeSheetService;
+        this.documentCache = documentCache;
+        this.batchRenderExecutor = batchRenderExecutor;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostMapping("/frais-kilometriques")
+    public void generateFraisKilometriques(
+        @RequestBody List<TimeSheetRequestDto> requests,
+        HttpServletResponse response
+    ) throws IOException {
+        if (requests.isEmpty() || requests.size() > maxSize) {
+            throw new ResponseStatusException(
+                HttpStatus.BAD_REQUEST,
+                "Un lot doit contenir entre 1 et " + maxSize + " requêtes"
+            );
+        }
+
+        response.setContentType(NDJSON);
+        OutputStream out = response.getOutputStream();
+        Deque<Future<BatchResultDto>> pending = new ArrayDeque<>(window);
+        int next = 0;
+        int written = 0;
+        try {
+            while (next < requests.size() || !pending.isEmpty()) {
+                while (next < requests.size() && pending.size() < window) {
+                    pending.add(submit(next, requests.get(next)));
+                    next++;
+                }
+                // Écriture dans l'ordre des requêtes, les suivantes continuent d'être rendues
+                write(out, result(written, pending.poll()));
+                written++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(pending);
+        } catch (IOException e) {
+            // Client déconnecté : inutile de rendre la suite du lot
+            cancel(pending);
+            log.warn("Lot interrompu après {} documents écrits : {}", written, e.getMessage());
+        }
+    }
+
+    private Future<BatchResultDto> submit(int index, TimeSheetRequestDto request) {
+        return batchRenderExecutor.submit(() -> {
+            try {
+                String etag = documentCache.etag(FRAIS_KILOMETRIQUES_TEMPLATE, request);
+                return BatchResultDto.success(index, timeSheetService.generateFraisKilometriques(request, etag));
+            } catch (Exception e) {
+                return failure(index, e);
+            }
+        });
+    }
+
+    // Une erreur (Error) du rendu remonte par le Future : elle reste l'échec de cette seule requête
+    private static BatchResultDto result(int index, Future<BatchResultDto> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            return failure(index, e.getCause());
+        }
+    }
+
+    private static BatchResultDto failure(int index, Throwable e) {
+        log.warn("Requête {} du lot en échec : {}", index, e.toString());
+        return BatchResultDto.failure(index, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+    }
+
+    private void write(OutputStream out, BatchResultDto result) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(result));
+        out.write('\n');
+        out.flush();
+    }
+
+    private static void cancel(Deque<Future<BatchResultDto>> pending) {
+        pending.forEach(future -> future.cancel(true));
+    }
+}
@@ -1,34 +1,50 @@
 package com.api.template.controller;
 
-import com.api.template.domain.dto.EmployeeDto;
+import com.api.template.domain.TimeSheetDocument;
 import com.api.template.domain.dto.TimeSheetRequestDto;
 import com.api.template.domain.dto.TimeSheetResponseDto;
-import com.api.template.domain.dto.VehicleDto;
+import com.api.template.service.DocumentCache;
 import com.api.template.service.TimeSheetService;
-import java.time.YearMonth;
-import java.time.format.DateTimeFormatter;
-import java.util.Locale;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
-import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.ModelAndView;
 
+/**
+ * Documents de frais kilométriques (JSON, PDF, HTML). Les endpoints sont des POST (la requête
+ * porte les trajets) : un If-None-Match qui correspond, ETag ou {@code *}, donne un 412 et non
+ * un 304 (RFC 9110, section 13.1.2), avec l'ETag du document déjà détenu par le client.
+ */
 @Controller
 @RequestMapping("/api/v1/template/")
 @Slf4j
 public class TimeSheetController {
 
+    private static final String FRAIS_KILOMETRIQUES_TEMPLATE = "frais-kilometriques-template";
+    private static final String TIMESHEET_TEMPLATE = "timesheet";
+    private static final String FRAIS_KILOMETRIQUES_PDF = "frais-kilometriques-pdf";
+
     private final TimeSheetService timeSheetService;
+    private final DocumentCache documentCache;
 
     @Autowired // Injection explicite
-    public TimeSheetController(TimeSheetService timeSheetService) {
+    public TimeSheetController(TimeSheetService timeSheetService, DocumentCache documentCache) {
         this.timeSheetService = timeSheetService;
+        this.documentCache = documentCache;
     }
 
     @Autowired
@@ -36,130 +52,102 @@ public class TimeSheetController {
 
     @PostMapping("/frais-kilometriques")
     @ResponseBody
-    public TimeSheetResponseDto generateFraisKilometriques(
+    public ResponseEntity<TimeSheetResponseDto> generateFraisKilometriques(
         @RequestBody TimeSheetRequestDto request,
-        Model model
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        YearMonth yearMonth = request.getYearMonth();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(
-            "MMMM"
-        ).withLocale(Locale.FRANCE);
-
-        // Création des DTOs avec les données
-        EmployeeDto employee = EmployeeDto.of(
-            request.getFirstName(),
-            request.getLastName()
-        );
-        VehicleDto vehicle = VehicleDto.of(request.getFiscalPower());
-
-        // Informations générales
-        model.addAttribute("employee", employee);
-        model.addAttribute("year", yearMonth.getYear());
-        model.addAttribute("monthYear", yearMonth.format(formatter));
-        model.addAttribute("vehicle", vehicle);
-        model.addAttribute("tripsPerWeek", request.getTripsPerWeek());
-        String previousKilometers = String.format(
-            Locale.FRANCE,
-            "%.1f",
-            request.getPreviousKilometers()
-        );
-        model.addAttribute("previousKilometers", previousKilometers);
-
-        // Entries du mois
-        var entries = timeSheetService.generateTimeSheet(
-            yearMonth.getYear(),
-            yearMonth.getMonthValue(),
-            request.getPreviousKilometers(),
-            request.getTripsPerWeek(),
-            request.getDestination(),
-            request.getClient(),
-            request.getKilometersPerTrip()
+        if (DocumentCache.isWildcard(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        String etag = documentCache.etag(FRAIS_KILOMETRIQUES_TEMPLATE, request);
+        if (documentCache.isEnabled() && DocumentCache.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).eTag(etag).build();
+        }
+
+        return ResponseEntity.ok().eTag(etag).body(
+            timeSheetService.generateFraisKilometriques(request, etag)
         );
-        model.addAttribute("entries", entries);
-
-        // Calcul du kilométrage final
-        double totalMonthKilometers = entries
-            .stream()
-            .mapToDouble(entry ->
-                entry.kilometers() != null ? entry.kilometers() : 0.0
-            )
-            .sum();
-        String finalKilometers = String.format(
-            Locale.FRANCE,
-            "%.1f",
-            request.getPreviousKilometers() + totalMonthKilometers
-        );
-        model.addAttribute("finalKilometers", finalKilometers);
-
-        // Rendre la vue et récupérer le HTML
-        ModelAndView modelAndView = new ModelAndView(
-            "frais-kilometriques-template"
-        );
-        modelAndView.addAllObjects(model.asMap());
-        String htmlContent = timeSheetService.renderView(modelAndView);
+    }
 
-        return new TimeSheetResponseDto(
-            htmlContent,
-            request.year(),
-            request.month(),
-            request.getPreviousKilometers(),
-            request.getPreviousKilometers() + totalMonthKilometers,
-            request.getTripsPerWeek(),
-            request.getDestination(),
-            request.getClient(),
-            request.kilometersPerTrip(),
-            request.getFirstName(),
-            request.getLastName(),
-            request.getFiscalPower()
-        );
+    @PostMapping(value = "/frais-kilometriques/pdf", produces = MediaType.APPLICATION_PDF_VALUE)
+    public void generateFraisKilometriquesPdf(
+        @RequestBody TimeSheetRequestDto request,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        HttpServletResponse response
+    ) throws IOException {
+        if (DocumentCache.isWildcard(ifNoneMatch)) {
+            response.setStatus(HttpStatus.PRECONDITION_FAILED.value());
+            return;
+        }
+        String etag = documentCache.etag(FRAIS_KILOMETRIQUES_PDF, request);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        if (documentCache.isEnabled() && DocumentCache.matches(ifNoneMatch, etag)) {
+            response.setStatus(HttpStatus.PRECONDITION_FAILED.value());
+            return;
+        }
+
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+            .filename("frais-kilometriques-" + request.getYearMonth() + ".pdf")
+            .build()
+            .toString());
+        timeSheetService.writeFraisKilometriquesPdf(request, etag, response.getOutputStream());
     }
 
     @PostMapping("/timesheet")
-    @ResponseBody
-    public String generateTimeSheet(
+    public void generateTimeSheet(
         @RequestBody TimeSheetRequestDto request,
-        Model model
-    ) {
-        YearMonth yearMonth = request.getYearMonth();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(
-            "MMMM"
-        ).withLocale(Locale.FRANCE);
-
-        // Création des DTOs avec les données
-        EmployeeDto employee = EmployeeDto.of(
-            request.getFirstName(),
-            request.getLastName()
-        );
-        VehicleDto vehicle = VehicleDto.of(request.getFiscalPower());
-
-        // Informations générales
-        model.addAttribute("employee", employee);
-        model.addAttribute("year", yearMonth.getYear());
-        model.addAttribute("monthYear", yearMonth.format(formatter));
-        model.addAttribute("vehicle", vehicle);
-        model.addAttribute("tripsPerWeek", request.getTripsPerWeek());
-        String previousKilometers = String.format(
-            Locale.FRANCE,
-            "%.1f",
-            request.getPreviousKilometers()
-        );
-        model.addAttribute("previousKilometers", previousKilometers);
-
-        // Entries du mois
-        var entries = timeSheetService.generateTimeSheet(
-            yearMonth.getYear(),
-            yearMonth.getMonthValue(),
-            request.getPreviousKilometers(),
-            request.getTripsPerWeek(),
-            request.getDestination(),
-            request.getClient(),
-            request.getKilometersPerTrip()
-        );
-        model.addAttribute("entries", entries);
-
-        // Rendre la vue et récupérer le HTML
-        ModelAndView modelAndView = new ModelAndView("timesheet");
-        modelAndView.addAllObjects(model.asMap());
-        return timeSheetService.renderView(modelAndView);
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+        HttpServletResponse response
+    ) throws IOException {
+        if (DocumentCache.isWildcard(ifNoneMatch)) {
+            response.setStatus(HttpStatus.PRECONDITION_FAILED.value());
+            return;
+        }
+        response.setContentType(MediaType.TEXT_HTML_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        if (!documentCache.isEnabled()) {
+            // Rendu écrit directement dans la réponse, sans construire le HTML en mémoire
+            TimeSheetDocument document = timeSheetService.prepareDocument(request);
+            timeSheetService.renderView(
+                TIMESHEET_TEMPLATE,
+                document.model(),
+                response.getWriter()
+            );
+            return;
+        }
+
+        String etag = documentCache.etag(TIMESHEET_TEMPLATE, request);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        if (DocumentCache.matches(ifNoneMatch, etag)) {
+            response.setStatus(HttpStatus.PRECONDITION_FAILED.value());
+            return;
+        }
+
+        boolean acceptsGzip = DocumentCache.acceptsGzip(acceptEncoding);
+        byte[] body;
+        DocumentCache.CachedDocument cached = documentCache.get(etag);
+        if (cached == null) {
+            TimeSheetDocument document = timeSheetService.prepareDocument(request);
+            String html = timeSheetService.renderView(
+                new ModelAndView(TIMESHEET_TEMPLATE, document.model())
+            );
+            cached = documentCache.put(etag, html, document.finalKilometers());
+            body = cached.gzipped() && acceptsGzip ? cached.content() : html.getBytes(StandardCharsets.UTF_8);
+        } else {
+            body = cached.gzipped() && acceptsGzip ? cached.content() : cached.html().getBytes(StandardCharsets.UTF_8);
+        }
+
+        // Document déjà compressé en cache : envoyé tel quel au client qui accepte gzip
+        if (cached.gzipped()) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (acceptsGzip) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
     }
 }
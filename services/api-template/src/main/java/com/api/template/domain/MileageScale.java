@@ -0,0 +1,91 @@
+package com.api.template.domain;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Barème kilométrique d'une puissance fiscale, pour une année de revenus.
+ *
+ * L'indemnité annuelle dépend de la distance totale de l'année (d) :
+ * d × upTo5000km jusqu'à 5 000 km, (d × from5001To20000km) + fixedAmount jusqu'à 20 000 km,
+ * d × above20000km au-delà. Le montant d'un trajet est la différence d'indemnité annuelle avant
+ * et après ce trajet : la somme des trajets de l'année vaut exactement l'indemnité annuelle,
+ * la régularisation de fin d'année est donc intégrée au fil des mois.
+ */
+public record MileageScale(
+    int fiscalPower,
+    double upTo5000km,
+    double from5001To20000km,
+    int fixedAmount,
+    double above20000km
+) {
+    private static final int MIN_FISCAL_POWER = 3;
+    private static final int MAX_FISCAL_POWER = 7;
+
+    // Barèmes par année de première application, de 3 CV (index 0) à 7 CV et plus (index 4)
+    private static final NavigableMap<Integer, MileageScale[]> SCALES = new TreeMap<>(Map.of(
+        // Revalorisé de 5,4 % pour les revenus 2022, reconduit depuis
+        2022, new MileageScale[] {
+            new MileageScale(3, 0.529, 0.316, 1065, 0.370),
+            new MileageScale(4, 0.606, 0.340, 1330, 0.407),
+            new MileageScale(5, 0.636, 0.357, 1395, 0.427),
+            new MileageScale(6, 0.665, 0.374, 1457, 0.447),
+            new MileageScale(7, 0.697, 0.394, 1515, 0.470)
+        }
+    ));
+
+    /**
+     * Barème applicable à cette année : 3 CV et moins utilisent le barème 3 CV,
+     * 7 CV et plus le barème 7 CV.
+     *
+     * @throws IllegalArgumentException si la puissance fiscale n'est pas positive
+     */
+    public static MileageScale of(int year, int fiscalPower) {
+        if (fiscalPower < 1) {
+            throw new IllegalArgumentException("Puissance fiscale non supportée: " + fiscalPower);
+        }
+        Map.Entry<Integer, MileageScale[]> entry = SCALES.floorEntry(year);
+        MileageScale[] scales = entry != null ? entry.getValue() : SCALES.firstEntry().getValue();
+        int index = Math.min(Math.max(fiscalPower, MIN_FISCAL_POWER), MAX_FISCAL_POWER) - MIN_FISCAL_POWER;
+        return scales[index];
+    }
+
+    /**
+     * Indemnité annuelle pour une distance totale de l'année.
+     */
+    public double annualAmount(double totalKilometers) {
+        if (totalKilometers <= 5000) {
+            return totalKilometers * upTo5000km;
+        } else if (totalKilometers <= 20000) {
+            return totalKilometers * from5001To20000km + fixedAmount;
+        } else {
+            return totalKilometers * above20000km;
+        }
+    }
+
+    /**
+     * Montant d'un trajet, sachant la distance déjà parcourue dans l'année.
+     */
+    public double amount(double previousKilometers, double kilometers) {
+        return annualAmount(previousKilometers + kilometers) - annualAmount(previousKilometers);
+    }
+
+    /**
+     * Montants d'une suite de trajets en une passe, sachant la distance déjà parcourue dans l'année.
+     *
+     * @param amounts reçoit le montant de chaque trajet (même longueur que {@code kilometers})
+     * @return distance totale après le dernier trajet
+     */
+    public double amounts(double previousKilometers, double[] kilometers, double[] amounts) {
+        double total = previousKilometers;
+        double before = annualAmount(total);
+        for (int i = 0; i < kilometers.length; i++) {
+            total += kilometers[i];
+            double after = annualAmount(total);
+            amounts[i] = after - before;
+            before = after;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,14 @@
+package com.api.template.domain;
+
+import java.util.Map;
+
+/**
+ * Modèle complet d'un document (note de frais ou timesheet), prêt à être rendu.
+ *
+ * @param model            variables du template
+ * @param finalKilometers  kilométrage cumulé à la fin du mois
+ */
+public record TimeSheetDocument(
+    Map<String, Object> model,
+    double finalKilometers
+) {}
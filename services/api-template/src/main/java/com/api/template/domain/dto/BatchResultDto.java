@@ -0,0 +1,21 @@
+package com.api.template.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Une ligne de la réponse NDJSON d'un lot : le document ou l'erreur de la requête {@code index}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchResultDto(
+    int index,
+    TimeSheetResponseDto document,
+    String error
+) {
+    public static BatchResultDto success(int index, TimeSheetResponseDto document) {
+        return new BatchResultDto(index, document, null);
+    }
+
+    public static BatchResultDto failure(int index, String error) {
+        return new BatchResultDto(index, null, error);
+    }
+}
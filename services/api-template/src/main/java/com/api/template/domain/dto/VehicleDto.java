@@ -1,31 +1,41 @@
 package com.api.template.domain.dto;
 
+import com.api.template.domain.MileageScale;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 public record VehicleDto(
     int fiscalPower,
-    double rateUpTo5000km,
-    double rateFrom5001To20000km,
-    double rateAbove20000km
+    MileageScale scale,
+    String upTo5000kmLabel,
+    String from5001To20000kmLabel,
+    String above20000kmLabel
 ) {
-    public static VehicleDto of(int fiscalPower) {
-        return switch (fiscalPower) {
-            case 5 -> new VehicleDto(5, 0.636, 0.357, 0.427);
-            case 6 -> new VehicleDto(6, 0.665, 0.374, 0.446);
-            case 7 -> new VehicleDto(7, 0.697, 0.392, 0.469);
-            default -> throw new IllegalArgumentException("Puissance fiscale non supportée: " + fiscalPower);
-        };
+    // Instances partagées par barème : les libellés sont formatés une seule fois
+    private static final Map<MileageScale, VehicleDto> VEHICLES = new ConcurrentHashMap<>();
+
+    public static VehicleDto of(int year, int fiscalPower) {
+        MileageScale scale = MileageScale.of(year, fiscalPower);
+        if (scale.fiscalPower() != fiscalPower) {
+            // Hors des puissances du barème (ex. 9 CV) : libellés du barème, puissance réelle
+            return create(fiscalPower, scale);
+        }
+        return VEHICLES.computeIfAbsent(scale, s -> create(fiscalPower, s));
     }
 
-    public String getDisplayText() {
-        return fiscalPower + " CV";
+    private static VehicleDto create(int fiscalPower, MileageScale scale) {
+        return new VehicleDto(
+            fiscalPower,
+            scale,
+            String.format(Locale.FRANCE, "d × %.3f", scale.upTo5000km()),
+            String.format(Locale.FRANCE, "(d × %.3f) + %d %03d",
+                scale.from5001To20000km(), scale.fixedAmount() / 1000, scale.fixedAmount() % 1000),
+            String.format(Locale.FRANCE, "d × %.3f", scale.above20000km())
+        );
     }
 
-    public double calculateAmount(double kilometers, double totalYearKilometers) {
-        if (totalYearKilometers <= 5000) {
-            return kilometers * rateUpTo5000km;
-        } else if (totalYearKilometers <= 20000) {
-            return kilometers * rateFrom5001To20000km + 1395;
-        } else {
-            return kilometers * rateAbove20000km;
-        }
+    public String getDisplayText() {
+        return fiscalPower + " CV";
     }
 }
@@ -0,0 +1,247 @@
+package com.api.template.service;
+
+import com.api.template.domain.dto.TimeSheetRequestDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.YearMonth;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Cache des documents rendus, adressé par leur contenu.
+ *
+ * Un document est une fonction pure de la requête normalisée : la clé (qui sert aussi
+ * d'ETag) est le hash SHA-256 de la requête canonique, des templates, du calendrier des
+ * jours fériés et de {@link #FORMAT_VERSION}. Un client qui renvoie l'ETag en If-None-Match
+ * obtient un 412 sans calcul ni rendu : les endpoints sont des POST, pour lesquels une
+ * précondition If-None-Match vérifiée donne 412 et non 304 (RFC 9110, section 13.1.2). Le
+ * 412 porte l'ETag : le document que le client a déjà est à jour. Le HTML est stocké compressé (gzip) par défaut, dans
+ * un cache borné en octets.
+ */
+@Service
+@Slf4j
+public class DocumentCache {
+
+    // À incrémenter quand le calcul des documents change (barème, jours fériés, mise en page PDF, ...)
+    private static final String FORMAT_VERSION = "3";
+
+    private static final List<String> TEMPLATE_FILES = List.of(
+        "templates/timesheet.html",
+        "templates/frais-kilometriques-template.html"
+    );
+
+    private final Cache<String, CachedDocument> documents;
+    private final boolean enabled;
+    private final boolean compress;
+    private final byte[] templatesDigest;
+    private final String holidayCalendar;
+
+    public DocumentCache(
+        HolidayProvider holidayProvider,
+        @Value("${template.cache.enabled:true}") boolean enabled,
+        @Value("${template.cache.max-size:64MB}") DataSize maxSize,
+        @Value("${template.cache.compress:true}") boolean compress
+    ) {
+        this.enabled = enabled;
+        this.compress = compress;
+        this.documents = Caffeine.newBuilder()
+            .maximumWeight(maxSize.toBytes())
+            .weigher((String key, CachedDocument document) -> document.content().length + key.length())
+            .recordStats()
+            .build();
+        this.templatesDigest = digestTemplates();
+        this.holidayCalendar = holidayProvider.id();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * ETag du document {@code template} pour cette requête, entre guillemets.
+     */
+    public String etag(String template, TimeSheetRequestDto request) {
+        YearMonth yearMonth = request.getYearMonth();
+        StringBuilder canonical = new StringBuilder(256);
+        append(canonical, FORMAT_VERSION);
+        append(canonical, holidayCalendar);
+        append(canonical, template);
+        append(canonical, yearMonth.toString());
+        append(canonical, Double.toString(request.getPreviousKilometers()));
+        append(canonical, request.getTripsPerWeek().toString());
+        append(canonical, request.getDestination());
+        append(canonical, request.getClient());
+        append(canonical, request.getKilometersPerTrip().toString());
+        append(canonical, request.getFirstName());
+        append(canonical, request.getLastName());
+        append(canonical, request.getFiscalPower().toString());
+
+        MessageDigest digest = sha256();
+        digest.update(templatesDigest);
+        byte[] hash = digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+        // 128 bits suffisent pour un ETag
+        return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+    }
+
+    /**
+     * Vrai si l'en-tête If-None-Match contient cet ETag. {@code *} n'est pas un ETag : voir
+     * {@link #isWildcard(String)}.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Vrai pour {@code If-None-Match: *}. Sur une méthode non sûre (POST), la précondition est
+     * fausse dès que la ressource a une représentation, ce qui est toujours le cas ici :
+     * réponse 412 (RFC 9110, section 13.1.2), sans même calculer l'ETag.
+     */
+    public static boolean isWildcard(String ifNoneMatch) {
+        return ifNoneMatch != null && ifNoneMatch.trim().equals("*");
+    }
+
+    /**
+     * Vrai si l'en-tête Accept-Encoding accepte gzip, cité ou couvert par {@code *}, avec une
+     * qualité non nulle : {@code gzip;q=0} le refuse.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String candidate : acceptEncoding.split(",")) {
+            String[] parameters = candidate.split(";");
+            String coding = parameters[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim().toLowerCase(Locale.ROOT);
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        // Qualité illisible : le codage n'est pas considéré comme accepté
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = quality;
+            } else if (coding.equals("*")) {
+                any = quality;
+            }
+        }
+        // Un codage cité l'emporte sur *
+        return gzip != null ? gzip > 0 : any != null && any > 0;
+    }
+
+    public CachedDocument get(String etag) {
+        return enabled ? documents.getIfPresent(etag) : null;
+    }
+
+    public CachedDocument put(String etag, String html, double finalKilometers) {
+        byte[] bytes = html.getBytes(StandardCharsets.UTF_8);
+        CachedDocument document = compress
+            ? new CachedDocument(gzip(bytes), true, finalKilometers)
+            : new CachedDocument(bytes, false, finalKilometers);
+        if (enabled) {
+            documents.put(etag, document);
+        }
+        return document;
+    }
+
+    /**
+     * Document binaire déjà compressé (PDF) : stocké tel quel.
+     */
+    public CachedDocument put(String etag, byte[] content, double finalKilometers) {
+        CachedDocument document = new CachedDocument(content, false, finalKilometers);
+        if (enabled) {
+            documents.put(etag, document);
+        }
+        return document;
+    }
+
+    public Cache<String, CachedDocument> getCache() {
+        return documents;
+    }
+
+    private static void append(StringBuilder canonical, String value) {
+        // Longueur préfixée : aucune valeur ne peut se confondre avec un séparateur
+        canonical.append(value.length()).append(':').append(value).append('|');
+    }
+
+    private static byte[] digestTemplates() {
+        MessageDigest digest = sha256();
+        for (String file : TEMPLATE_FILES) {
+            try (InputStream in = new ClassPathResource(file).getInputStream()) {
+                digest.update(in.readAllBytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Template introuvable : " + file, e);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 non disponible", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Document rendu, éventuellement compressé en gzip.
+     */
+    public record CachedDocument(byte[] content, boolean gzipped, double finalKilometers) {
+
+        public String html() {
+            if (!gzipped) {
+                return new String(content, StandardCharsets.UTF_8);
+            }
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(content))) {
+                return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.api.template.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Jours fériés d'un pays (ou d'une région), calculés pour n'importe quelle année.
+ *
+ * Une seule implémentation est active, choisie par {@code template.holidays.country}.
+ * Les résultats sont mémorisés par année côté appelant, le calcul n'a pas besoin d'être rapide.
+ */
+public interface HolidayProvider {
+
+    /**
+     * Identifiant du calendrier (pays et options régionales), inclus dans les ETags des documents.
+     */
+    String id();
+
+    List<LocalDate> holidays(int year);
+}
@@ -0,0 +1,75 @@
+package com.api.template.service.impl;
+
+import com.api.template.service.HolidayProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Jours fériés français : dates fixes et fêtes mobiles calculées depuis Pâques.
+ *
+ * Avec {@code template.holidays.alsace-moselle=true}, ajoute le Vendredi saint et la
+ * Saint-Étienne (Bas-Rhin, Haut-Rhin, Moselle).
+ */
+@Component
+@ConditionalOnProperty(name = "template.holidays.country", havingValue = "FR", matchIfMissing = true)
+public class FrenchHolidayProvider implements HolidayProvider {
+
+    private final boolean alsaceMoselle;
+
+    public FrenchHolidayProvider(@Value("${template.holidays.alsace-moselle:false}") boolean alsaceMoselle) {
+        this.alsaceMoselle = alsaceMoselle;
+    }
+
+    @Override
+    public String id() {
+        return alsaceMoselle ? "FR-alsace-moselle" : "FR";
+    }
+
+    @Override
+    public List<LocalDate> holidays(int year) {
+        LocalDate easter = easterSunday(year);
+        List<LocalDate> holidays = new ArrayList<>(13);
+        holidays.add(LocalDate.of(year, 1, 1));    // Jour de l'an
+        holidays.add(easter.plusDays(1));          // Lundi de Pâques
+        holidays.add(LocalDate.of(year, 5, 1));    // Fête du Travail
+        holidays.add(LocalDate.of(year, 5, 8));    // Victoire 1945
+        holidays.add(easter.plusDays(39));         // Ascension
+        holidays.add(easter.plusDays(50));         // Lundi de Pentecôte
+        holidays.add(LocalDate.of(year, 7, 14));   // Fête nationale
+        holidays.add(LocalDate.of(year, 8, 15));   // Assomption
+        holidays.add(LocalDate.of(year, 11, 1));   // Toussaint
+        holidays.add(LocalDate.of(year, 11, 11));  // Armistice 1918
+        holidays.add(LocalDate.of(year, 12, 25));  // Noël
+        if (alsaceMoselle) {
+            holidays.add(easter.minusDays(2));         // Vendredi saint
+            holidays.add(LocalDate.of(year, 12, 26));  // Saint-Étienne
+        }
+        return holidays;
+    }
+
+    /**
+     * Dimanche de Pâques du calendrier grégorien (algorithme de Meeus/Jones/Butcher).
+     */
+    static LocalDate easterSunday(int year) {
+        int a = year % 19;
+        int b = year / 100;
+        int c = year % 100;
+        int d = b / 4;
+        int e = b % 4;
+        int f = (b + 8) / 25;
+        int g = (b - f + 1) / 3;
+        int h = (19 * a + b - d - g + 15) % 30;
+        int i = c / 4;
+        int k = c % 4;
+        int l = (32 + 2 * e + 2 * i - h - k) % 7;
+        int m = (a + 11 * h + 22 * l) / 451;
+        int month = (h + l - 7 * m + 114) / 31;
+        int day = (h + l - 7 * m + 114) % 31 + 1;
+        return LocalDate.of(year, month, day);
+    }
+}
@@ -0,0 +1,81 @@
+package com.api.template.service.impl;
+
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Pool borné de buffers de rendu réutilisables.
+ *
+ * Un document fait quelques dizaines de Ko : le buffer est dimensionné une fois
+ * et réutilisé au lieu de faire grossir un nouveau StringWriter (synchronisé) à chaque requête.
+ * Les buffers devenus trop gros ne sont pas remis dans le pool.
+ */
+final class RenderBufferPool {
+
+    private static final int INITIAL_CAPACITY = 32 * 1024;
+    private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+
+    private final BlockingQueue<StringBuilderWriter> buffers;
+
+    RenderBufferPool(int size) {
+        this.buffers = new ArrayBlockingQueue<>(size);
+    }
+
+    StringBuilderWriter acquire() {
+        StringBuilderWriter writer = buffers.poll();
+        return writer != null ? writer : new StringBuilderWriter(INITIAL_CAPACITY);
+    }
+
+    void release(StringBuilderWriter writer) {
+        if (writer.builder.capacity() <= MAX_RETAINED_CAPACITY) {
+            writer.builder.setLength(0);
+            buffers.offer(writer);
+        }
+    }
+
+    /**
+     * Writer non synchronisé sur un StringBuilder.
+     */
+    static final class StringBuilderWriter extends Writer {
+        private final StringBuilder builder;
+
+        private StringBuilderWriter(int capacity) {
+            this.builder = new StringBuilder(capacity);
+        }
+
+        @Override
+        public void write(int c) {
+            builder.append((char) c);
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            builder.append(buffer, offset, length);
+        }
+
+        @Override
+        public void write(String str, int offset, int length) {
+            builder.append(str, offset, offset + length);
+        }
+
+        @Override
+        public Writer append(CharSequence csq) {
+            builder.append(csq);
+            return this;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return builder.toString();
+        }
+    }
+}
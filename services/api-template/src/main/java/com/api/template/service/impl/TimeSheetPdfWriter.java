@@ -0,0 +1,315 @@
+package com.api.template.service.impl;
+
+import com.api.template.domain.TimeSheetDocument;
+import com.api.template.domain.dto.EmployeeDto;
+import com.api.template.domain.dto.TimeSheetEntryDto;
+import com.api.template.domain.dto.VehicleDto;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDDocumentInformation;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.springframework.stereotype.Component;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Note de frais kilométriques mise en page directement en PDF (PDFBox), depuis le modèle du
+ * document : ni HTML, ni second parsing.
+ *
+ * Même mise en page que frais-kilometriques-template.html, en polices standard PDF (non
+ * embarquées). Le PDF ne contient ni date ni identifiant aléatoire : deux appels avec le
+ * même document et le même {@code documentId} produisent les mêmes octets. Un changement de
+ * mise en page doit incrémenter le FORMAT_VERSION de DocumentCache.
+ */
+@Component
+public class TimeSheetPdfWriter {
+
+    private static final Color NAVY = new Color(0x0f2c4a);
+    private static final Color ORANGE = new Color(0xf79646);
+    private static final Color LIGHT_BLUE = new Color(0xdbeffc);
+    private static final Color GRAY_300 = new Color(0xd1d5db);
+    private static final Color GRAY_500 = new Color(0x6b7280);
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private static final float MARGIN = 28;
+    private static final float ROW = 13;
+    private static final float FONT_SIZE = 7;
+
+    // Colonnes du tableau des trajets : date, destination, client, km, total
+    private static final float[] COLUMNS = {130, 190, 79, 70, 70};
+    private static final float DAY_WIDTH = 50;
+
+    /**
+     * Écrit le PDF du document dans {@code output}.
+     *
+     * @param documentId identifiant stable du document (ETag), repris dans l'identifiant du PDF
+     */
+    public void write(TimeSheetDocument document, String documentId, OutputStream output) throws IOException {
+        Map<String, Object> model = document.model();
+        EmployeeDto employee = (EmployeeDto) model.get("employee");
+        VehicleDto vehicle = (VehicleDto) model.get("vehicle");
+        @SuppressWarnings("unchecked")
+        List<TimeSheetEntryDto> entries = (List<TimeSheetEntryDto>) model.get("entries");
+
+        try (PDDocument pdf = new PDDocument()) {
+            PDPage page = new PDPage(PDRectangle.A4);
+            pdf.addPage(page);
+            float width = page.getMediaBox().getWidth() - 2 * MARGIN;
+            float y = page.getMediaBox().getHeight() - MARGIN;
+
+            try (PDPageContentStream content = new PDPageContentStream(pdf, page)) {
+                // Polices par document : les objets PDFont ont des caches internes non synchronisés
+                Canvas canvas = new Canvas(content,
+                        new PDType1Font(Standard14Fonts.FontName.HELVETICA),
+                        new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD));
+
+                // Titre
+                float titleWidth = 330;
+                float titleX = MARGIN + (width - titleWidth) / 2;
+                canvas.box(titleX, y - 24, titleWidth, 24, NAVY, ORANGE);
+                canvas.centered("REMBOURSEMENT INDEMNITES KILOMETRIQUES", canvas.bold(), 10, Color.WHITE,
+                        titleX, y - 24, titleWidth, 24);
+                y -= 24 + 18;
+
+                // Informations générales (gauche) et barème (droite)
+                float half = width / 2;
+                String[][] infos = {
+                    {"Nom Prénom", employee.fullName()},
+                    {"Année", String.valueOf(model.get("year"))},
+                    {"Mois", String.valueOf(model.get("monthYear"))},
+                    {"Puissance", vehicle.getDisplayText()},
+                };
+                float infoY = y;
+                for (String[] info : infos) {
+                    canvas.text(info[0], canvas.bold(), FONT_SIZE, Color.BLACK, MARGIN, infoY - 16, 16);
+                    canvas.box(MARGIN + 90, infoY - 16, half - 94, 16, NAVY, ORANGE);
+                    canvas.centered(info[1], canvas.regular(), FONT_SIZE, Color.WHITE, MARGIN + 90, infoY - 16, half - 94, 16);
+                    infoY -= 20;
+                }
+
+                float scaleX = MARGIN + width - 3 * 88;
+                String[] scaleHeaders = {"jusqu'à 5000 km", "de 5001 à 20000 km", "au-delà de 20001 km"};
+                String[] scaleLabels = {
+                    vehicle.upTo5000kmLabel(), vehicle.from5001To20000kmLabel(), vehicle.above20000kmLabel()
+                };
+                for (int i = 0; i < 3; i++) {
+                    float x = scaleX + i * 88;
+                    canvas.box(x, y - 22, 88, 22, NAVY, ORANGE);
+                    canvas.centered("Distance (d)", canvas.bold(), 6, Color.WHITE, x, y - 11, 88, 11);
+                    canvas.centered(scaleHeaders[i], canvas.bold(), 6, Color.WHITE, x, y - 20, 88, 11);
+                    canvas.box(x, y - 38, 88, 16, null, ORANGE);
+                    canvas.centered(scaleLabels[i], canvas.regular(), FONT_SIZE, Color.BLACK, x, y - 38, 88, 16);
+                }
+                y = infoY - 8;
+
+                // Kilométrage de début de mois
+                y = kilometersLine(canvas, "Kilométrage parcouru depuis le début de l'année (début de mois)",
+                        model.get("previousKilometers") + " km", y);
+                y -= 6;
+
+                // Tableau des trajets
+                String[] headers = {"DATE", "DESTINATION", "CLIENT", "NBRE DE KM", "TOTAL €"};
+                float x = MARGIN;
+                for (int i = 0; i < headers.length; i++) {
+                    canvas.box(x, y - ROW, COLUMNS[i], ROW, NAVY, ORANGE);
+                    canvas.centered(headers[i], canvas.bold(), FONT_SIZE, Color.WHITE, x, y - ROW, COLUMNS[i], ROW);
+                    x += COLUMNS[i];
+                }
+                y -= ROW;
+
+                double totalKilometers = 0;
+                double totalAmount = 0;
+                for (TimeSheetEntryDto entry : entries) {
+                    double kilometers = entry.kilometers() != null ? entry.kilometers() : 0.0;
+                    double amount = entry.totalAmount() != null ? entry.totalAmount() : 0.0;
+                    totalKilometers += kilometers;
+                    totalAmount += amount;
+
+                    Color background = entry.isHoliday() ? GRAY_300 : LIGHT_BLUE;
+                    Color dayColor = entry.isWeekend() ? ORANGE : entry.isHoliday() ? GRAY_500 : NAVY;
+                    String[] cells = {
+                        null,
+                        entry.destination(),
+                        entry.client(),
+                        String.format(Locale.FRANCE, "%.1f km", kilometers),
+                        String.format(Locale.FRANCE, "%.2f €", amount)
+                    };
+                    x = MARGIN;
+                    for (int i = 0; i < cells.length; i++) {
+                        canvas.box(x, y - ROW, COLUMNS[i], ROW, background, ORANGE);
+                        if (i == 0) {
+                            canvas.box(x, y - ROW, DAY_WIDTH, ROW, dayColor, null);
+                            canvas.centered(entry.dayOfWeek(), canvas.bold(), FONT_SIZE, Color.WHITE,
+                                    x, y - ROW, DAY_WIDTH, ROW);
+                            canvas.centered(entry.date().format(DATE), canvas.regular(), FONT_SIZE, Color.BLACK,
+                                    x + DAY_WIDTH, y - ROW, COLUMNS[0] - DAY_WIDTH, ROW);
+                        } else if (i == 1) {
+                            canvas.text(cells[i], canvas.regular(), FONT_SIZE, Color.BLACK, x + 3, y - ROW, ROW, COLUMNS[i] - 6);
+                        } else {
+                            canvas.centered(cells[i], canvas.regular(), FONT_SIZE, Color.BLACK, x, y - ROW, COLUMNS[i], ROW);
+                        }
+                        x += COLUMNS[i];
+                    }
+                    y -= ROW;
+                }
+
+                // Totaux
+                canvas.box(MARGIN, y - ROW, COLUMNS[0], ROW, NAVY, ORANGE);
+                canvas.centered("TOTAL", canvas.bold(), FONT_SIZE, Color.WHITE, MARGIN, y - ROW, COLUMNS[0], ROW);
+                x = MARGIN + COLUMNS[0] + COLUMNS[1] + COLUMNS[2];
+                canvas.box(x, y - ROW, COLUMNS[3], ROW, null, ORANGE);
+                canvas.centered(String.format(Locale.FRANCE, "%.1f km", totalKilometers), canvas.regular(), FONT_SIZE,
+                        Color.BLACK, x, y - ROW, COLUMNS[3], ROW);
+                x += COLUMNS[3];
+                canvas.box(x, y - ROW, COLUMNS[4], ROW, NAVY, ORANGE);
+                canvas.centered(String.format(Locale.FRANCE, "%.2f €", totalAmount), canvas.bold(), FONT_SIZE,
+                        Color.WHITE, x, y - ROW, COLUMNS[4], ROW);
+                y -= ROW + 8;
+
+                // Kilométrage de fin de mois
+                kilometersLine(canvas, "Kilométrage parcouru depuis le début de l'année (fin de mois)",
+                        model.get("finalKilometers") + " km", y);
+            }
+
+            PDDocumentInformation info = pdf.getDocumentInformation();
+            info.setTitle("Remboursement indemnités kilométriques - " + employee.fullName() + " - "
+                    + model.get("monthYear") + " " + model.get("year"));
+
+            // Identifiant fixe : sinon PDFBox en génère un à partir de l'heure d'écriture
+            COSString id = new COSString(documentIdBytes(documentId));
+            COSArray ids = new COSArray();
+            ids.add(id);
+            ids.add(id);
+            pdf.getDocument().getTrailer().setItem(COSName.ID, ids);
+
+            pdf.save(output);
+        }
+    }
+
+    private static float kilometersLine(Canvas canvas, String label, String value, float y) throws IOException {
+        float labelWidth = canvas.width(label, canvas.bold(), FONT_SIZE) + 12;
+        canvas.text(label, canvas.bold(), FONT_SIZE, Color.BLACK, MARGIN, y - 16, 16);
+        canvas.box(MARGIN + labelWidth, y - 16, 90, 16, NAVY, ORANGE);
+        canvas.centered(value, canvas.regular(), FONT_SIZE, Color.WHITE, MARGIN + labelWidth, y - 16, 90, 16);
+        return y - 16;
+    }
+
+    private static byte[] documentIdBytes(String documentId) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(documentId.getBytes(StandardCharsets.UTF_8));
+            return Arrays.copyOf(hash, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 non disponible", e);
+        }
+    }
+
+    /**
+     * Primitives de dessin (rectangles et texte aligné dans une cellule).
+     */
+    private record Canvas(PDPageContentStream content, PDType1Font regular, PDType1Font bold) {
+
+        void box(float x, float y, float width, float height, Color fill, Color border) throws IOException {
+            if (fill != null) {
+                content.setNonStrokingColor(fill);
+                content.addRect(x, y, width, height);
+                content.fill();
+            }
+            if (border != null) {
+                content.setStrokingColor(border);
+                content.setLineWidth(0.5f);
+                content.addRect(x, y, width, height);
+                content.stroke();
+            }
+        }
+
+        void centered(String text, PDType1Font font, float size, Color color,
+                      float x, float y, float width, float height) throws IOException {
+            String value = fit(encodable(text, font), font, size, width - 4);
+            float textWidth = width(value, font, size);
+            show(value, font, size, color, x + (width - textWidth) / 2, baseline(y, height, size));
+        }
+
+        void text(String text, PDType1Font font, float size, Color color, float x, float y, float height) throws IOException {
+            show(encodable(text, font), font, size, color, x, baseline(y, height, size));
+        }
+
+        void text(String text, PDType1Font font, float size, Color color,
+                  float x, float y, float height, float maxWidth) throws IOException {
+            show(fit(encodable(text, font), font, size, maxWidth), font, size, color, x, baseline(y, height, size));
+        }
+
+        float width(String text, PDType1Font font, float size) throws IOException {
+            return font.getStringWidth(text) / 1000 * size;
+        }
+
+        private void show(String text, PDType1Font font, float size, Color color, float x, float y) throws IOException {
+            if (text.isEmpty()) {
+                return;
+            }
+            content.beginText();
+            content.setNonStrokingColor(color);
+            content.setFont(font, size);
+            content.newLineAtOffset(x, y);
+            content.showText(text);
+            content.endText();
+        }
+
+        private static float baseline(float y, float height, float size) {
+            return y + (height - size * 0.7f) / 2;
+        }
+
+        // Tronque le texte trop long pour sa cellule
+        private String fit(String text, PDType1Font font, float size, float maxWidth) throws IOException {
+            if (width(text, font, size) <= maxWidth) {
+                return text;
+            }
+            String value = text;
+            while (!value.isEmpty() && width(value + "…", font, size) > maxWidth) {
+                value = value.substring(0, value.length() - 1);
+            }
+            return value + "…";
+        }
+
+        // Les polices standard PDF (WinAnsi) ne couvrent pas tout Unicode : remplace les caractères absents
+        private static String encodable(String text, PDType1Font font) throws IOException {
+            if (text == null) {
+                return "";
+            }
+            if (canEncode(text, font)) {
+                return text;
+            }
+            StringBuilder value = new StringBuilder(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                String c = String.valueOf(text.charAt(i));
+                value.append(canEncode(c, font) ? c : Character.isSpaceChar(text.charAt(i)) ? " " : "?");
+            }
+            return value.toString();
+        }
+
+        private static boolean canEncode(String text, PDType1Font font) throws IOException {
+            try {
+                font.encode(text);
+                return true;
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        }
+    }
+}
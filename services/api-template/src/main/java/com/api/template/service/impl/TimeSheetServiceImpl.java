@@ -1,67 +1,75 @@
 package com.api.template.service.impl;
 
+import com.api.template.domain.MileageScale;
+import com.api.template.domain.TimeSheetDocument;
+import com.api.template.domain.dto.EmployeeDto;
 import com.api.template.domain.dto.TimeSheetEntryDto;
+import com.api.template.domain.dto.TimeSheetRequestDto;
+import com.api.template.domain.dto.TimeSheetResponseDto;
+import com.api.template.domain.dto.VehicleDto;
+import com.api.template.service.DocumentCache;
 import com.api.template.service.TimeSheetService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.servlet.ModelAndView;
 import org.thymeleaf.context.Context;
 import org.thymeleaf.spring6.SpringTemplateEngine;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.time.DayOfWeek;
-import java.time.LocalDate;
 import java.time.YearMonth;
-import java.time.format.TextStyle;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 @Service
 @Slf4j
 public class TimeSheetServiceImpl implements TimeSheetService {
 
+    private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("MMMM").withLocale(Locale.FRANCE);
+
+    private static final String FRAIS_KILOMETRIQUES_TEMPLATE = "frais-kilometriques-template";
+
+    // Templates rendus au démarrage pour que le premier client ne paie pas le parsing
+    private static final List<String> TEMPLATES = List.of(FRAIS_KILOMETRIQUES_TEMPLATE, "timesheet");
+
     private final SpringTemplateEngine templateEngine;
     private final ApplicationContext applicationContext;
-
-    public TimeSheetServiceImpl(ApplicationContext applicationContext, SpringTemplateEngine templateEngine) {
+    private final DocumentCache documentCache;
+    private final WorkCalendar workCalendar;
+    private final TimeSheetPdfWriter pdfWriter;
+    private final RenderBufferPool bufferPool = new RenderBufferPool(Runtime.getRuntime().availableProcessors() * 2);
+
+    public TimeSheetServiceImpl(ApplicationContext applicationContext, SpringTemplateEngine templateEngine,
+                                DocumentCache documentCache, WorkCalendar workCalendar,
+                                TimeSheetPdfWriter pdfWriter) {
         this.templateEngine = templateEngine;
         this.applicationContext = applicationContext;
+        this.documentCache = documentCache;
+        this.workCalendar = workCalendar;
+        this.pdfWriter = pdfWriter;
     }
 
-    private Set<LocalDate> getHolidaysForYear(int year) {
-        return HOLIDAYS.getOrDefault(year, Collections.emptySet());
-    }
-
-    private Map<DayOfWeek, String> getTripDays(int tripsPerWeek) {
-        Map<DayOfWeek, String> destinations = new LinkedHashMap<>();
-
-        // Distribution des déplacements sur la semaine, en commençant par le mardi
-        switch(tripsPerWeek) {
-            case 5 -> {
-                destinations.put(DayOfWeek.MONDAY, null);
-                destinations.put(DayOfWeek.TUESDAY, null);
-                destinations.put(DayOfWeek.WEDNESDAY, null);
-                destinations.put(DayOfWeek.THURSDAY, null);
-                destinations.put(DayOfWeek.FRIDAY, null);
-            }
-            case 4 -> {
-                destinations.put(DayOfWeek.TUESDAY, null);
-                destinations.put(DayOfWeek.WEDNESDAY, null);
-                destinations.put(DayOfWeek.THURSDAY, null);
-                destinations.put(DayOfWeek.FRIDAY, null);
-            }
-            case 3 -> {
-                destinations.put(DayOfWeek.TUESDAY, null);
-                destinations.put(DayOfWeek.WEDNESDAY, null);
-                destinations.put(DayOfWeek.THURSDAY, null);
-            }
-            case 2 -> {
-                destinations.put(DayOfWeek.TUESDAY, null);
-                destinations.put(DayOfWeek.THURSDAY, null);
-            }
-            case 1 -> destinations.put(DayOfWeek.TUESDAY, null);
+    // ApplicationReadyEvent précède le passage de la readiness à ACCEPTING_TRAFFIC : aucun trafic
+    // n'est envoyé avant la fin du préchargement (en lazy-initialization, crée aussi le moteur Thymeleaf)
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.nanoTime();
+        TimeSheetDocument document = prepareDocument(TimeSheetRequestDto.getDefault());
+        for (String template : TEMPLATES) {
+            renderView(template, document.model(), Writer.nullWriter());
         }
-
-        return destinations;
+        try {
+            pdfWriter.write(document, "warm-up", OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            log.warn("Préchargement du rendu PDF impossible", e);
+        }
+        log.info("Templates {} préchargés en {} ms", TEMPLATES, (System.nanoTime() - start) / 1_000_000);
     }
 
     @Override
@@ -72,74 +80,149 @@ public class TimeSheetServiceImpl implements TimeSheetService {
             int tripsPerWeek,
             String destination,
             String client,
-            double kilometersPerTrip) {
-
-        if (tripsPerWeek < 1 || tripsPerWeek > 5) {
-            throw new IllegalArgumentException("Le nombre de déplacements par semaine doit être compris entre 1 et 5");
+            double kilometersPerTrip,
+            int fiscalPower) {
+
+        Set<DayOfWeek> tripDays = WorkCalendar.tripDays(tripsPerWeek);
+        WorkCalendar.Month calendar = workCalendar.month(YearMonth.of(year, month));
+        MileageScale scale = MileageScale.of(year, fiscalPower);
+
+        // Montants de tous les trajets du mois en une passe, à partir du kilométrage de l'année
+        int trips = 0;
+        for (int day = 0; day < calendar.length(); day++) {
+            if (calendar.isTripDay(day, tripDays)) {
+                trips++;
+            }
         }
-
-        List<TimeSheetEntryDto> entries = new ArrayList<>();
-        YearMonth yearMonth = YearMonth.of(year, month);
-        LocalDate startDate = yearMonth.atDay(1);
-        LocalDate endDate = yearMonth.atEndOfMonth();
-        double currentKilometers = previousKilometers;
-
-        Map<DayOfWeek, String> tripDays = getTripDays(tripsPerWeek);
-
-        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-            String dayOfWeek = capitalizeFirstLetter(date.getDayOfWeek().getDisplayName(TextStyle.FULL, Locale.FRANCE));
-            boolean isHoliday = getHolidaysForYear(year).contains(date);
-            boolean isWeekend = date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
-
-            TimeSheetEntryDto entry;
-            if (!isWeekend && !isHoliday && tripDays.containsKey(date.getDayOfWeek())) {
-                currentKilometers += kilometersPerTrip;
-                entry = TimeSheetEntryDto.regularTrip(
-                        date,
-                        dayOfWeek,
+        double[] kilometers = new double[trips];
+        double[] amounts = new double[trips];
+        Arrays.fill(kilometers, kilometersPerTrip);
+        scale.amounts(previousKilometers, kilometers, amounts);
+
+        List<TimeSheetEntryDto> entries = new ArrayList<>(calendar.length());
+        int trip = 0;
+        for (int day = 0; day < calendar.length(); day++) {
+            if (calendar.isTripDay(day, tripDays)) {
+                entries.add(TimeSheetEntryDto.regularTrip(
+                        calendar.date(day),
+                        calendar.dayName(day),
                         destination,
                         client,
                         kilometersPerTrip,
-                        calculateAmount(kilometersPerTrip, currentKilometers)
-                );
+                        amounts[trip++]
+                ));
             } else {
-                entry = TimeSheetEntryDto.empty(date, isWeekend, isHoliday ,dayOfWeek);
+                // Entrée précalculée, partagée entre les requêtes
+                entries.add(calendar.emptyEntry(day));
             }
-
-            entries.add(entry);
         }
 
         return entries;
     }
 
     @Override
-    public String renderView(ModelAndView modelAndView) {
-        Context context = new Context();
-        Map<String, Object> modelMap = modelAndView.getModel();
-        context.setVariables(modelMap);
-
-        return this.templateEngine.process(Objects.requireNonNull(modelAndView.getViewName()), context);
+    public TimeSheetDocument prepareDocument(TimeSheetRequestDto request) {
+        YearMonth yearMonth = request.getYearMonth();
+
+        // Création des DTOs avec les données
+        EmployeeDto employee = EmployeeDto.of(request.getFirstName(), request.getLastName());
+        VehicleDto vehicle = VehicleDto.of(yearMonth.getYear(), request.getFiscalPower());
+
+        // Entries du mois
+        List<TimeSheetEntryDto> entries = generateTimeSheet(
+                yearMonth.getYear(),
+                yearMonth.getMonthValue(),
+                request.getPreviousKilometers(),
+                request.getTripsPerWeek(),
+                request.getDestination(),
+                request.getClient(),
+                request.getKilometersPerTrip(),
+                request.getFiscalPower()
+        );
+
+        // Calcul du kilométrage final
+        double totalMonthKilometers = 0.0;
+        for (TimeSheetEntryDto entry : entries) {
+            totalMonthKilometers += entry.kilometers() != null ? entry.kilometers() : 0.0;
+        }
+        double finalKilometers = request.getPreviousKilometers() + totalMonthKilometers;
+
+        Map<String, Object> model = new HashMap<>();
+        model.put("employee", employee);
+        model.put("year", yearMonth.getYear());
+        model.put("monthYear", yearMonth.format(MONTH_FORMATTER));
+        model.put("vehicle", vehicle);
+        model.put("tripsPerWeek", request.getTripsPerWeek());
+        model.put("previousKilometers", String.format(Locale.FRANCE, "%.1f", request.getPreviousKilometers()));
+        model.put("entries", entries);
+        model.put("finalKilometers", String.format(Locale.FRANCE, "%.1f", finalKilometers));
+
+        return new TimeSheetDocument(model, finalKilometers);
     }
 
-    private double calculateAmount(double kilometers, double totalKilometers) {
+    @Override
+    public TimeSheetResponseDto generateFraisKilometriques(TimeSheetRequestDto request, String etag) {
+        String htmlContent;
+        double finalKilometers;
+        DocumentCache.CachedDocument cached = documentCache.get(etag);
+        if (cached != null) {
+            htmlContent = cached.html();
+            finalKilometers = cached.finalKilometers();
+        } else {
+            TimeSheetDocument document = prepareDocument(request);
+            htmlContent = renderView(new ModelAndView(FRAIS_KILOMETRIQUES_TEMPLATE, document.model()));
+            finalKilometers = document.finalKilometers();
+            documentCache.put(etag, htmlContent, finalKilometers);
+        }
 
-        // Barème 2025 pour une voiture de 5 CV
-        //        if (totalKilometers <= 5000) {
-        //            return kilometers * 0.636;
-        //        } else if (totalKilometers <= 20000) {
-        //            return (kilometers * 0.357) + 1395;
-        //        } else {
-        //            return kilometers * 0.427;
-        //        }
+        return new TimeSheetResponseDto(
+                htmlContent,
+                request.year(),
+                request.month(),
+                request.getPreviousKilometers(),
+                finalKilometers,
+                request.getTripsPerWeek(),
+                request.getDestination(),
+                request.getClient(),
+                request.kilometersPerTrip(),
+                request.getFirstName(),
+                request.getLastName(),
+                request.getFiscalPower()
+        );
+    }
 
-        // à la fin de l'année, on fait la régule par rapport au barème 2025
-        return kilometers * 0.636;
+    @Override
+    public void writeFraisKilometriquesPdf(TimeSheetRequestDto request, String etag, OutputStream output)
+            throws IOException {
+        DocumentCache.CachedDocument cached = documentCache.get(etag);
+        if (cached == null) {
+            TimeSheetDocument document = prepareDocument(request);
+            if (!documentCache.isEnabled()) {
+                pdfWriter.write(document, etag, output);
+                return;
+            }
+            ByteArrayOutputStream pdf = new ByteArrayOutputStream(16 * 1024);
+            pdfWriter.write(document, etag, pdf);
+            cached = documentCache.put(etag, pdf.toByteArray(), document.finalKilometers());
+        }
+        output.write(cached.content());
     }
 
-    private String capitalizeFirstLetter(String input) {
-        if (input == null || input.isEmpty()) {
-            return input;
+    @Override
+    public String renderView(ModelAndView modelAndView) {
+        RenderBufferPool.StringBuilderWriter writer = bufferPool.acquire();
+        try {
+            renderView(Objects.requireNonNull(modelAndView.getViewName()), modelAndView.getModel(), writer);
+            return writer.toString();
+        } finally {
+            bufferPool.release(writer);
         }
-        return input.substring(0, 1).toUpperCase() + input.substring(1);
     }
-}
\ No newline at end of file
+
+    @Override
+    public void renderView(String viewName, Map<String, Object> model, Writer writer) {
+        // Documents en français, indépendamment de la locale de la JVM
+        Context context = new Context(Locale.FRANCE, model);
+        this.templateEngine.process(viewName, context, writer);
+    }
+}
@@ -0,0 +1,156 @@
+package com.api.template.service.impl;
+
+import com.api.template.domain.dto.TimeSheetEntryDto;
+import com.api.template.service.HolidayProvider;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Calendrier précalculé des notes de frais.
+ *
+ * Chaque mois est calculé une seule fois : type de chaque jour (ouvré, week-end, férié),
+ * nom du jour et entrées vides prêtes à l'emploi. Les jours fériés du {@link HolidayProvider}
+ * sont mémorisés par année dans des bitsets indexés par jour de l'année. Générer un mois ne coûte plus que les entrées des trajets.
+ */
+@Component
+public class WorkCalendar {
+
+    static final byte WORKDAY = 0;
+    static final byte WEEKEND = 1;
+    static final byte HOLIDAY = 2;
+
+    private static final DayOfWeek[] DAYS = DayOfWeek.values();
+
+    // Noms des jours en français, capitalisés, indexés par DayOfWeek.ordinal()
+    private static final String[] DAY_NAMES = new String[DAYS.length];
+
+    // Jours de déplacement selon le nombre de déplacements par semaine (index 1 à 5)
+    private static final List<Set<DayOfWeek>> TRIP_DAYS = List.of(
+            Collections.emptySet(),
+            Collections.unmodifiableSet(EnumSet.of(DayOfWeek.TUESDAY)),
+            Collections.unmodifiableSet(EnumSet.of(DayOfWeek.TUESDAY, DayOfWeek.THURSDAY)),
+            Collections.unmodifiableSet(EnumSet.range(DayOfWeek.TUESDAY, DayOfWeek.THURSDAY)),
+            Collections.unmodifiableSet(EnumSet.range(DayOfWeek.TUESDAY, DayOfWeek.FRIDAY)),
+            Collections.unmodifiableSet(EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY))
+    );
+
+    static {
+        for (DayOfWeek day : DAYS) {
+            String name = day.getDisplayName(TextStyle.FULL, Locale.FRANCE);
+            DAY_NAMES[day.ordinal()] = (name.substring(0, 1).toUpperCase(Locale.FRANCE) + name.substring(1)).intern();
+        }
+    }
+
+    private final HolidayProvider holidayProvider;
+    private final LoadingCache<Integer, BitSet> holidays;
+    private final LoadingCache<YearMonth, Month> months;
+
+    public WorkCalendar(HolidayProvider holidayProvider) {
+        this.holidayProvider = holidayProvider;
+        this.holidays = Caffeine.newBuilder()
+                .maximumSize(64)
+                .build(this::holidaysOf);
+        this.months = Caffeine.newBuilder()
+                .maximumSize(240)
+                .build(this::buildMonth);
+    }
+
+    /**
+     * Jours de déplacement, en commençant par le mardi.
+     *
+     * @throws IllegalArgumentException si tripsPerWeek n'est pas compris entre 1 et 5
+     */
+    public static Set<DayOfWeek> tripDays(int tripsPerWeek) {
+        if (tripsPerWeek < 1 || tripsPerWeek > 5) {
+            throw new IllegalArgumentException("Le nombre de déplacements par semaine doit être compris entre 1 et 5");
+        }
+        return TRIP_DAYS.get(tripsPerWeek);
+    }
+
+    public Month month(YearMonth yearMonth) {
+        return months.get(yearMonth);
+    }
+
+    private Month buildMonth(YearMonth yearMonth) {
+        int length = yearMonth.lengthOfMonth();
+        BitSet yearHolidays = holidays.get(yearMonth.getYear());
+        LocalDate first = yearMonth.atDay(1);
+        int firstDayOfYear = first.getDayOfYear();
+        int firstDayOfWeek = first.getDayOfWeek().ordinal();
+
+        byte[] types = new byte[length];
+        DayOfWeek[] daysOfWeek = new DayOfWeek[length];
+        TimeSheetEntryDto[] emptyEntries = new TimeSheetEntryDto[length];
+        for (int i = 0; i < length; i++) {
+            DayOfWeek day = DAYS[(firstDayOfWeek + i) % DAYS.length];
+            boolean weekend = day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY;
+            boolean holiday = yearHolidays.get(firstDayOfYear + i);
+            types[i] = weekend ? WEEKEND : holiday ? HOLIDAY : WORKDAY;
+            daysOfWeek[i] = day;
+            emptyEntries[i] = TimeSheetEntryDto.empty(first.plusDays(i), weekend, holiday, DAY_NAMES[day.ordinal()]);
+        }
+        return new Month(types, daysOfWeek, emptyEntries);
+    }
+
+    private BitSet holidaysOf(int year) {
+        BitSet days = new BitSet(367);
+        for (LocalDate date : holidayProvider.holidays(year)) {
+            days.set(date.getDayOfYear());
+        }
+        return days;
+    }
+
+    /**
+     * Table des jours d'un mois, immuable et partagée entre les requêtes.
+     */
+    public static final class Month {
+
+        private final byte[] types;
+        private final DayOfWeek[] daysOfWeek;
+        private final TimeSheetEntryDto[] emptyEntries;
+
+        private Month(byte[] types, DayOfWeek[] daysOfWeek, TimeSheetEntryDto[] emptyEntries) {
+            this.types = types;
+            this.daysOfWeek = daysOfWeek;
+            this.emptyEntries = emptyEntries;
+        }
+
+        public int length() {
+            return types.length;
+        }
+
+        /**
+         * Jour ouvré (ni week-end ni férié) tombant un des jours donnés.
+         */
+        public boolean isTripDay(int index, Set<DayOfWeek> tripDays) {
+            return types[index] == WORKDAY && tripDays.contains(daysOfWeek[index]);
+        }
+
+        /**
+         * Entrée sans déplacement du jour {@code index} (0 = premier du mois).
+         */
+        public TimeSheetEntryDto emptyEntry(int index) {
+            return emptyEntries[index];
+        }
+
+        public LocalDate date(int index) {
+            return emptyEntries[index].date();
+        }
+
+        public String dayName(int index) {
+            return DAY_NAMES[daysOfWeek[index].ordinal()];
+        }
+    }
+}
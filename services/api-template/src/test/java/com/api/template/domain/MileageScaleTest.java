@@ -0,0 +1,40 @@
+package com.api.template.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class MileageScaleTest {
+
+	private final MileageScale fiveCv = MileageScale.of(2025, 5);
+
+	@Test
+	void annualAmountPerBand() {
+		assertThat(fiveCv.annualAmount(4000)).isCloseTo(4000 * 0.636, within(1e-9));
+		assertThat(fiveCv.annualAmount(12000)).isCloseTo(12000 * 0.357 + 1395, within(1e-9));
+		assertThat(fiveCv.annualAmount(25000)).isCloseTo(25000 * 0.427, within(1e-9));
+	}
+
+	@Test
+	void tripAmountsAddUpToTheAnnualAmount() {
+		double[] kilometers = new double[600];
+		Arrays.fill(kilometers, 42.0);
+		double[] amounts = new double[kilometers.length];
+
+		double total = fiveCv.amounts(0, kilometers, amounts);
+
+		assertThat(total).isCloseTo(25200, within(1e-6));
+		assertThat(Arrays.stream(amounts).sum()).isCloseTo(fiveCv.annualAmount(total), within(1e-6));
+		// Au-delà de 5 000 km, chaque trajet est payé au taux marginal de la tranche
+		assertThat(amounts[200]).isCloseTo(42 * 0.357, within(1e-9));
+	}
+
+	@Test
+	void fiscalPowerIsClampedToTheScale() {
+		assertThat(MileageScale.of(2025, 2).fiscalPower()).isEqualTo(3);
+		assertThat(MileageScale.of(2025, 11).fiscalPower()).isEqualTo(7);
+		assertThat(MileageScale.of(2019, 5)).isEqualTo(fiveCv);
+	}
+}
@@ -0,0 +1,29 @@
+package com.api.template.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class DocumentCacheTest {
+
+	private static final String ETAG = "\"0123456789abcdef0123456789abcdef\"";
+
+	@Test
+	void ifNoneMatchMatchesConcreteETagsOnly() {
+		assertThat(DocumentCache.matches(ETAG, ETAG)).isTrue();
+		assertThat(DocumentCache.matches("\"other\", W/" + ETAG, ETAG)).isTrue();
+		assertThat(DocumentCache.matches("*", ETAG)).isFalse();
+		assertThat(DocumentCache.isWildcard(" * ")).isTrue();
+	}
+
+	@Test
+	void gzipIsAcceptedOnlyWithANonZeroQuality() {
+		assertThat(DocumentCache.acceptsGzip("gzip, deflate, br")).isTrue();
+		assertThat(DocumentCache.acceptsGzip("br;q=1.0, GZIP;Q=0.5")).isTrue();
+		assertThat(DocumentCache.acceptsGzip("gzip;q=0")).isFalse();
+		assertThat(DocumentCache.acceptsGzip("gzip;q=0.000, *")).isFalse();
+		assertThat(DocumentCache.acceptsGzip("br, *;q=0.1")).isTrue();
+		assertThat(DocumentCache.acceptsGzip("identity")).isFalse();
+		assertThat(DocumentCache.acceptsGzip(null)).isFalse();
+	}
+}
@@ -0,0 +1,56 @@
+package com.api.template.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class FrenchHolidayProviderTest {
+
+	private final FrenchHolidayProvider provider = new FrenchHolidayProvider(false);
+
+	@ParameterizedTest
+	@CsvSource({
+			"2024, 2024-03-31",
+			"2025, 2025-04-20",
+			"2026, 2026-04-05",
+			"2027, 2027-03-28",
+			"2028, 2028-04-16",
+			"2029, 2029-04-01",
+			"2030, 2030-04-21",
+			"2038, 2038-04-25",
+			"2285, 2285-03-22"
+	})
+	void easterSunday(int year, LocalDate expected) {
+		assertThat(FrenchHolidayProvider.easterSunday(year)).isEqualTo(expected);
+	}
+
+	@Test
+	void holidays2026() {
+		assertThat(provider.holidays(2026)).containsExactlyInAnyOrder(
+				LocalDate.of(2026, 1, 1),
+				LocalDate.of(2026, 4, 6),
+				LocalDate.of(2026, 5, 1),
+				LocalDate.of(2026, 5, 8),
+				LocalDate.of(2026, 5, 14),
+				LocalDate.of(2026, 5, 25),
+				LocalDate.of(2026, 7, 14),
+				LocalDate.of(2026, 8, 15),
+				LocalDate.of(2026, 11, 1),
+				LocalDate.of(2026, 11, 11),
+				LocalDate.of(2026, 12, 25)
+		);
+	}
+
+	@Test
+	void alsaceMoselle() {
+		FrenchHolidayProvider alsace = new FrenchHolidayProvider(true);
+
+		assertThat(alsace.holidays(2026))
+				.hasSize(13)
+				.contains(LocalDate.of(2026, 4, 3), LocalDate.of(2026, 12, 26));
+		assertThat(alsace.id()).isNotEqualTo(provider.id());
+	}
+}
@@ -0,0 +1,64 @@
+package com.api.template.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.api.template.domain.TimeSheetDocument;
+import com.api.template.domain.dto.EmployeeDto;
+import com.api.template.domain.dto.TimeSheetEntryDto;
+import com.api.template.domain.dto.VehicleDto;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class TimeSheetPdfWriterTest {
+
+	private static final String ETAG = "\"0123456789abcdef0123456789abcdef\"";
+
+	@Test
+	void sameDocumentGivesSameBytes() throws IOException {
+		TimeSheetDocument document = document();
+
+		byte[] first = write(new TimeSheetPdfWriter(), document, ETAG);
+		byte[] second = write(new TimeSheetPdfWriter(), document, ETAG);
+
+		assertThat(new String(first, 0, 5, StandardCharsets.US_ASCII)).isEqualTo("%PDF-");
+		assertThat(second).isEqualTo(first);
+	}
+
+	@Test
+	void documentIdIsPartOfTheBytes() throws IOException {
+		TimeSheetDocument document = document();
+
+		byte[] first = write(new TimeSheetPdfWriter(), document, ETAG);
+		byte[] other = write(new TimeSheetPdfWriter(), document, "\"fedcba9876543210fedcba9876543210\"");
+
+		assertThat(other).isNotEqualTo(first);
+	}
+
+	private static byte[] write(TimeSheetPdfWriter writer, TimeSheetDocument document, String etag) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		writer.write(document, etag, out);
+		return out.toByteArray();
+	}
+
+	private static TimeSheetDocument document() {
+		List<TimeSheetEntryDto> entries = List.of(
+				TimeSheetEntryDto.regularTrip(LocalDate.of(2026, 5, 4), "Lundi", "Lyon Part-Dieu", "Client Été", 42.0, 26.71),
+				TimeSheetEntryDto.regularTrip(LocalDate.of(2026, 5, 5), "Mardi", "Lyon Part-Dieu", "Client Été", 42.0, 26.71),
+				TimeSheetEntryDto.empty(LocalDate.of(2026, 5, 8), false, true, "Vendredi"),
+				TimeSheetEntryDto.empty(LocalDate.of(2026, 5, 9), true, false, "Samedi"));
+		Map<String, Object> model = Map.of(
+				"employee", EmployeeDto.of("Zoé", "Martin"),
+				"vehicle", VehicleDto.of(2026, 5),
+				"entries", entries,
+				"year", 2026,
+				"monthYear", "Mai",
+				"previousKilometers", 1200.0,
+				"finalKilometers", 1284.0);
+		return new TimeSheetDocument(model, 1284.0);
+	}
+}
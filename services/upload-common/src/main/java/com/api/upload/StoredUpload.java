@@ -0,0 +1,89 @@
+package com.api.upload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Document reçu, stocké dans un fichier temporaire. Son propriétaire le supprime ou le déplace.
+ */
+public record StoredUpload(Path path, long size) {
+
+    // Taille des régions projetées en mémoire lors d'une lecture séquentielle
+    private static final long REGION_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * Lecture séquentielle par régions projetées en mémoire (hors heap), quelle que soit la taille du fichier.
+     */
+    public InputStream inputStream() throws IOException {
+        return new MappedInputStream(FileChannel.open(path, StandardOpenOption.READ), size);
+    }
+
+    /**
+     * Projette une région du fichier en mémoire, en lecture seule.
+     */
+    public MappedByteBuffer map(long position, long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        }
+    }
+
+    public void delete() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    private static final class MappedInputStream extends InputStream {
+
+        private final FileChannel channel;
+        private final long size;
+        private long regionStart;
+        private MappedByteBuffer region;
+
+        MappedInputStream(FileChannel channel, long size) {
+            this.channel = channel;
+            this.size = size;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return nextRegion() ? region.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!nextRegion()) {
+                return -1;
+            }
+            int count = Math.min(length, region.remaining());
+            region.get(buffer, offset, count);
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            region = null;
+            channel.close();
+        }
+
+        // Projette la région suivante quand la courante est épuisée ; faux à la fin du fichier
+        private boolean nextRegion() throws IOException {
+            if (region != null && region.hasRemaining()) {
+                return true;
+            }
+            long position = region == null ? regionStart : regionStart + region.capacity();
+            if (position >= size) {
+                return false;
+            }
+            regionStart = position;
+            region = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(REGION_SIZE, size - position));
+            return true;
+        }
+    }
+}
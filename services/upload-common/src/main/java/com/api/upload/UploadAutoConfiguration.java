@@ -0,0 +1,25 @@
+package com.api.upload;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Réception des documents sur disque, commune aux services (api-pdf, api-docling) : chacun
+ * règle ses limites et son chemin par upload.*. Le nettoyage des envois abandonnés demande
+ * {@code @EnableScheduling} dans le service.
+ */
+@AutoConfiguration
+@EnableConfigurationProperties(UploadProperties.class)
+public class UploadAutoConfiguration {
+
+    @Bean
+    public UploadStore uploadStore(UploadProperties properties) {
+        return new UploadStore(properties);
+    }
+
+    @Bean
+    public UploadController uploadController(UploadStore uploadStore, UploadProperties properties) {
+        return new UploadController(uploadStore, properties);
+    }
+}
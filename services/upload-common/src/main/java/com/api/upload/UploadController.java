@@ -0,0 +1,53 @@
+package com.api.upload;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.net.URI;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Envoi par morceaux des gros documents : création de la session, morceaux successifs
+ * (reprise à l'offset renvoyé par GET), puis utilisation de l'id comme paramètre
+ * {@code upload} des endpoints de traitement. Monté sous {@code upload.path}.
+ */
+@RestController
+@RequestMapping("${upload.path:/uploads}")
+public class UploadController {
+
+    private final UploadStore uploadStore;
+    private final UploadProperties properties;
+
+    public UploadController(UploadStore uploadStore, UploadProperties properties) {
+        this.uploadStore = uploadStore;
+        this.properties = properties;
+    }
+
+    @PostMapping
+    public ResponseEntity<UploadSessionDto> create(@RequestParam long size) throws IOException {
+        UploadSessionDto session = uploadStore.createSession(size);
+        return ResponseEntity
+            .created(URI.create(properties.getPath() + "/" + session.id()))
+            .body(session);
+    }
+
+    @GetMapping("/{id}")
+    public UploadSessionDto status(@PathVariable String id) {
+        return uploadStore.status(id);
+    }
+
+    @PutMapping("/{id}")
+    public UploadSessionDto append(
+        @PathVariable String id,
+        @RequestParam long offset,
+        HttpServletRequest request
+    ) throws IOException {
+        return uploadStore.append(id, offset, request.getInputStream());
+    }
+}
@@ -0,0 +1,40 @@
+package com.api.upload;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Réception des documents (upload.*).
+ */
+@ConfigurationProperties(prefix = "upload")
+@Data
+public class UploadProperties {
+
+    /**
+     * Chemin des endpoints d'envoi par morceaux, propre à chaque service
+     */
+    private String path = "/uploads";
+
+    /**
+     * Répertoire des fichiers reçus, vidé au démarrage
+     */
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "uploads");
+
+    /**
+     * Taille maximale d'un envoi en une fois, au-delà il faut passer par /uploads (par morceaux)
+     */
+    private DataSize chunkedThreshold = DataSize.ofMegabytes(32);
+
+    /**
+     * Taille maximale d'un document
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(512);
+
+    /**
+     * Durée de vie d'un upload par morceaux sans activité
+     */
+    private Duration sessionTtl = Duration.ofHours(1);
+}
@@ -0,0 +1,11 @@
+package com.api.upload;
+
+/**
+ * État d'un upload par morceaux : le prochain morceau commence à {@code received}.
+ */
+public record UploadSessionDto(
+    String id,
+    long size,
+    long received,
+    boolean complete
+) {}
@@ -0,0 +1,202 @@
+package com.api.upload;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Écrit les corps de requête directement dans des fichiers temporaires (FileChannel), sans
+ * jamais les matérialiser dans le heap : la mémoire dépend du nombre d'envois simultanés,
+ * pas de la taille des documents.
+ *
+ * Au-delà de {@code upload.chunked-threshold}, un document s'envoie par morceaux dans une
+ * session : chaque morceau commence à l'offset déjà reçu, un envoi interrompu reprend là où
+ * il s'est arrêté.
+ */
+@Slf4j
+public class UploadStore {
+
+    private final UploadProperties properties;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    public UploadStore(UploadProperties properties) {
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        // Les sessions sont en mémoire : les fichiers d'une exécution précédente sont orphelins
+        FileSystemUtils.deleteRecursively(properties.getDirectory());
+        Files.createDirectories(properties.getDirectory());
+    }
+
+    /**
+     * Reçoit un document envoyé en une fois.
+     *
+     * @param declaredLength Content-Length de la requête, -1 si inconnu
+     */
+    public StoredUpload receive(InputStream body, long declaredLength) throws IOException {
+        long limit = properties.getChunkedThreshold().toBytes();
+        if (declaredLength > limit) {
+            throw tooLarge("Document de plus de " + properties.getChunkedThreshold() + " : utiliser l'envoi par morceaux");
+        }
+        Path file = Files.createTempFile(properties.getDirectory(), "upload-", ".bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            long size = transfer(body, channel, 0, limit);
+            return new StoredUpload(file, size);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    /**
+     * Ouvre un envoi par morceaux d'un document de {@code size} octets.
+     */
+    public UploadSessionDto createSession(long size) throws IOException {
+        if (size < 0 || size > properties.getMaxSize().toBytes()) {
+            throw tooLarge("Taille maximale : " + properties.getMaxSize());
+        }
+        String id = UUID.randomUUID().toString();
+        Path file = Files.createFile(properties.getDirectory().resolve(id + ".part"));
+        Session session = new Session(id, file, size);
+        sessions.put(id, session);
+        return session.toDto();
+    }
+
+    public UploadSessionDto status(String id) {
+        return session(id).toDto();
+    }
+
+    /**
+     * Ajoute un morceau à partir de {@code offset}, qui doit être égal au nombre d'octets déjà reçus.
+     */
+    public UploadSessionDto append(String id, long offset, InputStream chunk) throws IOException {
+        Session session = session(id);
+        if (!session.lock.tryLock()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Un morceau est déjà en cours d'envoi");
+        }
+        try {
+            if (offset != session.received) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Offset attendu : " + session.received + ", reçu : " + offset);
+            }
+            try (FileChannel channel = FileChannel.open(session.file, StandardOpenOption.WRITE)) {
+                try {
+                    transfer(chunk, channel, offset, session.size - offset);
+                } finally {
+                    // Morceau interrompu : on garde ce qui a été écrit, le client reprend à session.received
+                    if (channel.size() > session.size) {
+                        channel.truncate(session.size);
+                    }
+                    session.received = channel.size();
+                }
+            }
+            session.touchedAt = Instant.now();
+            return session.toDto();
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Termine un envoi par morceaux : le fichier appartient désormais à l'appelant.
+     */
+    public StoredUpload complete(String id) {
+        Session session = session(id);
+        session.lock.lock();
+        try {
+            if (session.received != session.size) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Envoi incomplet : " + session.received + "/" + session.size + " octets");
+            }
+            sessions.remove(id);
+            return new StoredUpload(session.file, session.size);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${upload.cleanup-interval:PT5M}")
+    public void evictExpired() {
+        Instant expiredBefore = Instant.now().minus(properties.getSessionTtl());
+        sessions.values().removeIf(session -> {
+            if (session.touchedAt.isAfter(expiredBefore) || !session.lock.tryLock()) {
+                return false;
+            }
+            try {
+                Files.deleteIfExists(session.file);
+            } catch (IOException e) {
+                log.warn("Suppression de l'upload {} impossible", session.id, e);
+            } finally {
+                session.lock.unlock();
+            }
+            return true;
+        });
+    }
+
+    private Session session(String id) {
+        Session session = sessions.get(id);
+        if (session == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload inconnu ou expiré : " + id);
+        }
+        return session;
+    }
+
+    /**
+     * Copie au plus {@code limit} octets dans le fichier, via le buffer direct du FileChannel.
+     */
+    private static long transfer(InputStream body, FileChannel target, long position, long limit) throws IOException {
+        ReadableByteChannel source = Channels.newChannel(body);
+        long written = 0;
+        long count;
+        // Un octet de plus que la limite pour détecter un corps trop long
+        while ((count = target.transferFrom(source, position + written, limit - written + 1)) > 0) {
+            written += count;
+            if (written > limit) {
+                throw tooLarge("Document plus long que prévu");
+            }
+        }
+        return written;
+    }
+
+    private static ResponseStatusException tooLarge(String message) {
+        return new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, message);
+    }
+
+    private static final class Session {
+
+        private final String id;
+        private final Path file;
+        private final long size;
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile long received;
+        private volatile Instant touchedAt = Instant.now();
+
+        Session(String id, Path file, long size) {
+            this.id = id;
+            this.file = file;
+            this.size = size;
+        }
+
+        UploadSessionDto toDto() {
+            return new UploadSessionDto(id, size, received, received == size);
+        }
+    }
+}